@@ -0,0 +1,299 @@
+package com.dinochrome.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.utils.Array;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Fuentes de un TTF rasterizadas una sola vez y guardadas en disco.
+ *
+ * Generar con FreeType es lo más lento de armar una pantalla. La primera vez
+ * que se pide un tamaño se genera, y sus páginas (PNG) y métricas de los glifos
+ * quedan en el caché. De ahí en adelante se lee eso, que es abrir una imagen.
+ *
+ * El nombre en el caché sale de un CRC del TTF, el tamaño, el color y los
+ * caracteres: si cambia cualquiera, es otra entrada (las viejas quedan, pesan
+ * unos KB). Si el caché no se puede leer o escribir, se genera igual.
+ *
+ * Las fuentes que devuelve son nuevas y de quien las pide (las comparte
+ * Recursos). Sólo desde el hilo de render.
+ */
+final class CacheFuentes {
+
+    /** Subir si cambia lo que se guarda: invalida todo el caché. */
+    private static final int FORMATO = 1;
+
+    private static final String CARPETA = ".dinochrome/fuentes/";
+
+    // Una página alcanza de sobra para estos caracteres hasta 32 px
+    private static final int TAMANO_PAGINA = 512;
+
+    private final FileHandle ttf;
+    private final String caracteres;
+    private final Color color;
+    private final FileHandle carpeta;
+
+    // CRC del TTF, calculado la primera vez
+    private long crcTtf = -1;
+
+    CacheFuentes(FileHandle ttf, String caracteres, Color color) {
+        this.ttf = ttf;
+        this.caracteres = caracteres;
+        this.color = new Color(color);
+        this.carpeta = Gdx.files.isExternalStorageAvailable()
+            ? Gdx.files.external(CARPETA)
+            : Gdx.files.local(CARPETA);
+    }
+
+    /** La fuente de ese tamaño: del caché si está; si no, se genera y se guarda. */
+    BitmapFont cargar(int tamano) {
+        String nombre = nombre(tamano);
+
+        BitmapFont fuente = leer(nombre);
+        if (fuente != null) return fuente;
+
+        generar(tamano, nombre);
+
+        // Se arma desde lo guardado (un solo camino); si no se pudo guardar, FreeType directo
+        fuente = leer(nombre);
+        return fuente != null ? fuente : generarSinCache(tamano);
+    }
+
+    // -------------------------
+    // Generar (FreeType)
+    // -------------------------
+    private FreeTypeFontParameter parametros(int tamano) {
+        FreeTypeFontParameter p = new FreeTypeFontParameter();
+        p.size = tamano;
+        p.color = color;
+        p.characters = caracteres;
+        return p;
+    }
+
+    private void generar(int tamano, String nombre) {
+        FreeTypeFontGenerator generador = new FreeTypeFontGenerator(ttf);
+        PixmapPacker empaquetador = new PixmapPacker(TAMANO_PAGINA, TAMANO_PAGINA, Pixmap.Format.RGBA8888, 1, false);
+        // Como hace el generador con su propio empaquetador: el borde transparente del color de la fuente
+        empaquetador.setTransparentColor(color);
+        empaquetador.getTransparentColor().a = 0;
+
+        try {
+            FreeTypeFontParameter p = parametros(tamano);
+            p.packer = empaquetador;
+            BitmapFontData datos = generador.generateData(p);
+
+            Array<PixmapPacker.Page> paginas = empaquetador.getPages();
+            for (int i = 0; i < paginas.size; i++) {
+                PixmapIO.writePNG(carpeta.child(nombre + "_" + i + ".png"), paginas.get(i).getPixmap());
+            }
+
+            // Las métricas al final: si están, las páginas también
+            DataOutputStream out = new DataOutputStream(carpeta.child(nombre + ".fuente").write(false, 8192));
+            try {
+                escribir(out, datos, paginas.size);
+            } finally {
+                out.close();
+            }
+        } catch (Exception e) {
+            // Sin disco: cargar() genera sin caché
+            carpeta.child(nombre + ".fuente").delete();
+        } finally {
+            empaquetador.dispose();
+            generador.dispose();
+        }
+    }
+
+    private BitmapFont generarSinCache(int tamano) {
+        FreeTypeFontGenerator generador = new FreeTypeFontGenerator(ttf);
+        try {
+            return generador.generateFont(parametros(tamano));
+        } finally {
+            generador.dispose();
+        }
+    }
+
+    // -------------------------
+    // Guardar / leer
+    // -------------------------
+    private static void escribir(DataOutputStream out, BitmapFontData d, int paginas) throws IOException {
+        out.writeInt(FORMATO);
+        out.writeInt(paginas);
+
+        out.writeBoolean(d.flipped);
+        out.writeFloat(d.padTop);
+        out.writeFloat(d.padRight);
+        out.writeFloat(d.padBottom);
+        out.writeFloat(d.padLeft);
+        out.writeFloat(d.lineHeight);
+        out.writeFloat(d.capHeight);
+        out.writeFloat(d.ascent);
+        out.writeFloat(d.descent);
+        out.writeFloat(d.down);
+        out.writeFloat(d.spaceXadvance);
+        out.writeFloat(d.xHeight);
+        out.writeFloat(d.cursorX);
+
+        int cantidad = 0;
+        for (Glyph[] pagina : d.glyphs) {
+            if (pagina == null) continue;
+            for (Glyph g : pagina) if (g != null) cantidad++;
+        }
+        out.writeInt(cantidad);
+        for (Glyph[] pagina : d.glyphs) {
+            if (pagina == null) continue;
+            for (Glyph g : pagina) if (g != null) escribir(out, g);
+        }
+
+        out.writeBoolean(d.missingGlyph != null);
+        if (d.missingGlyph != null) escribir(out, d.missingGlyph);
+    }
+
+    private static void escribir(DataOutputStream out, Glyph g) throws IOException {
+        out.writeInt(g.id);
+        out.writeInt(g.srcX);
+        out.writeInt(g.srcY);
+        out.writeInt(g.width);
+        out.writeInt(g.height);
+        out.writeInt(g.xoffset);
+        out.writeInt(g.yoffset);
+        out.writeInt(g.xadvance);
+        out.writeInt(g.page);
+        out.writeBoolean(g.fixedWidth);
+
+        // Kerning: las páginas que tiene, tal cual
+        int paginas = 0;
+        if (g.kerning != null) {
+            for (byte[] k : g.kerning) if (k != null) paginas++;
+        }
+        out.writeInt(paginas);
+        if (paginas == 0) return;
+
+        out.writeInt(g.kerning.length);
+        for (int i = 0; i < g.kerning.length; i++) {
+            byte[] k = g.kerning[i];
+            if (k == null) continue;
+            out.writeInt(i);
+            out.writeInt(k.length);
+            out.write(k);
+        }
+    }
+
+    private BitmapFont leer(String nombre) {
+        FileHandle archivo = carpeta.child(nombre + ".fuente");
+        if (!archivo.exists()) return null;
+
+        Array<TextureRegion> regiones = new Array<>();
+        try {
+            DataInputStream in = new DataInputStream(archivo.read(8192));
+            try {
+                if (in.readInt() != FORMATO) return null;
+
+                int paginas = in.readInt();
+                BitmapFontData d = new BitmapFontData();
+                d.flipped = in.readBoolean();
+                d.padTop = in.readFloat();
+                d.padRight = in.readFloat();
+                d.padBottom = in.readFloat();
+                d.padLeft = in.readFloat();
+                d.lineHeight = in.readFloat();
+                d.capHeight = in.readFloat();
+                d.ascent = in.readFloat();
+                d.descent = in.readFloat();
+                d.down = in.readFloat();
+                d.spaceXadvance = in.readFloat();
+                d.xHeight = in.readFloat();
+                d.cursorX = in.readFloat();
+
+                int cantidad = in.readInt();
+                for (int i = 0; i < cantidad; i++) {
+                    Glyph g = leerGlifo(in);
+                    d.setGlyph(g.id, g);
+                }
+
+                if (in.readBoolean()) {
+                    Glyph faltante = leerGlifo(in);
+                    Glyph igual = d.getGlyph((char) faltante.id);
+                    d.missingGlyph = igual != null ? igual : faltante;
+                }
+
+                d.imagePaths = new String[paginas];
+                for (int i = 0; i < paginas; i++) {
+                    FileHandle png = carpeta.child(nombre + "_" + i + ".png");
+                    d.imagePaths[i] = png.path();
+                    regiones.add(new TextureRegion(new Texture(png)));
+                }
+
+                BitmapFont fuente = new BitmapFont(d, regiones, true);
+                fuente.setOwnsTexture(true);
+                return fuente;
+            } finally {
+                in.close();
+            }
+        } catch (Exception e) {
+            // Roto o a medio escribir: se descarta y se vuelve a generar
+            for (TextureRegion r : regiones) r.getTexture().dispose();
+            archivo.delete();
+            return null;
+        }
+    }
+
+    private static Glyph leerGlifo(DataInputStream in) throws IOException {
+        Glyph g = new Glyph();
+        g.id = in.readInt();
+        g.srcX = in.readInt();
+        g.srcY = in.readInt();
+        g.width = in.readInt();
+        g.height = in.readInt();
+        g.xoffset = in.readInt();
+        g.yoffset = in.readInt();
+        g.xadvance = in.readInt();
+        g.page = in.readInt();
+        g.fixedWidth = in.readBoolean();
+
+        int paginas = in.readInt();
+        if (paginas == 0) return g;
+
+        g.kerning = new byte[in.readInt()][];
+        for (int i = 0; i < paginas; i++) {
+            int indice = in.readInt();
+            byte[] k = new byte[in.readInt()];
+            in.readFully(k);
+            g.kerning[indice] = k;
+        }
+        return g;
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private String nombre(int tamano) {
+        if (crcTtf < 0) {
+            CRC32 crc = new CRC32();
+            crc.update(ttf.readBytes());
+            crcTtf = crc.getValue();
+        }
+
+        CRC32 crc = new CRC32();
+        String clave = FORMATO + "|" + tamano + "|" + color + "|" + caracteres;
+        crc.update(clave.getBytes(StandardCharsets.UTF_8));
+        return ttf.nameWithoutExtension() + "_" + tamano + "_"
+            + Long.toHexString(crcTtf) + "_" + Long.toHexString(crc.getValue());
+    }
+}
@@ -2,24 +2,20 @@ package com.dinochrome.game;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.Preferences;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
-import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.utils.Array;
 
-import java.util.Random;
+import com.dinochrome.game.sim.AlmacenObstaculos;
+import com.dinochrome.game.sim.FisicaDino;
+import com.dinochrome.game.sim.Simulacion;
 
-public class GameScreen implements Screen {
+public class GameScreen implements PantallaReutilizable {
 
     private final LanzadorDelJuego juego;
     private final OrthographicCamera camara;
@@ -27,12 +23,11 @@ public class GameScreen implements Screen {
     // Mundo
     private static final int ANCHO = 800;
     private static final int ALTO = 240;
-    private static final float Y_SUELO = 40;
+    private static final float Y_SUELO = FisicaDino.Y_SUELO;
 
-    // Velocidad del juego
+    // Velocidad del juego (sólo para la animación: la velocidad real está en la simulación)
     private static final float VELOCIDAD_BASE = 200f;
     private static final float VELOCIDAD_MAX  = 500f;
-    private float velocidadJuego = 250f;
 
     // Velocidad de animación del dino según la velocidad del juego
     private static final float ANIM_LENTA = 0.22f;
@@ -47,8 +42,11 @@ public class GameScreen implements Screen {
     private float tiempoDiaNoche = 0f;
     private boolean esDeNoche = false;
 
+    // Mundo a paso fijo: dino, obstáculos, velocidad y puntaje
+    private final Simulacion simulacion;
+    private int saltosSonados = 0;
+
     // Puntaje
-    private int puntaje = 0;
     private final Preferences preferencias;
     private int record;
 
@@ -56,100 +54,64 @@ public class GameScreen implements Screen {
     private final Sound sonidoSalto;
     private final Sound sonidoGolpe;
 
-    // Texturas
-    private final Texture texturaCactus;
-    private final Texture texturaPtero;
-    private final Texture texturaSuelo;
-
-    // Dino: posición y física
-    private final float dinoX = 80;
-    private float dinoY = Y_SUELO;
-
-    private final float anchoDinoHitbox = 30;
-    private final float altoDinoParadoHitbox = 40;
-    private final float altoDinoAgachadoHitbox = 25;
-
-    private final Rectangle hitboxDino;
-
-    private float velocidadY = 0f;
-    private static final float GRAVEDAD = -900f;
-    private static final float FUERZA_SALTO = 350f;
-    private boolean estaEnSuelo = true;
-    private boolean estaAgachado = false;
+    // Sprites (regiones del atlas: todo se dibuja de una textura)
+    private final TextureRegion regionCactus;
+    private final TextureRegion regionPtero;
+    private final TextureRegion regionSuelo;
 
     // Dino: animación
-    private final Texture texturaDinoRun1;
-    private final Texture texturaDinoRun2;
-    private final Texture texturaDinoAgachado;
-
     private final Animation<TextureRegion> animacionCorrer;
     private final TextureRegion regionAgachado;
 
-    // Obstáculos
-    private final Array<Obstaculos> obstaculos;
-    private final Random random;
-    private float temporizadorSpawn = 0f;
-
     // Fuentes
     private final BitmapFont fuentePuntaje;
     private final BitmapFont fuenteFin;
 
+    // HUD: se rearma sólo cuando cambia el número
+    private final TextoHud textoPuntaje;
+    private final TextoHud textoRecord;
+
+    // Llamadas de dibujo del último frame (para el contador de F3)
+    private final TextoHud textoLlamadas;
+    private int llamadasDibujo = 0;
+
     public GameScreen(LanzadorDelJuego juego) {
         this.juego = juego;
 
         camara = new OrthographicCamera();
         camara.setToOrtho(false, ANCHO, ALTO);
 
-        // Fuentes desde TTF
-        FreeTypeFontGenerator generador = new FreeTypeFontGenerator(Gdx.files.internal("font.ttf"));
-
-        FreeTypeFontParameter paramPuntaje = new FreeTypeFontParameter();
-        paramPuntaje.size = 20;
-        paramPuntaje.color = Color.BLACK;
-        paramPuntaje.characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789:!?. ";
-
-        fuentePuntaje = generador.generateFont(paramPuntaje);
+        // Fuentes (compartidas, ya cargadas desde el caché)
+        fuentePuntaje = juego.recursos.fuente(Recursos.FUENTE_PUNTAJE);
+        fuenteFin = juego.recursos.fuente(Recursos.FUENTE_FIN);
 
-        FreeTypeFontParameter paramFin = new FreeTypeFontParameter();
-        paramFin.size = 32;
-        paramFin.color = Color.BLACK;
-        paramFin.characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789:!?. ";
-
-        fuenteFin = generador.generateFont(paramFin);
-
-        generador.dispose();
-
-        // Hitbox del dino
-        hitboxDino = new Rectangle(dinoX, dinoY, anchoDinoHitbox, altoDinoParadoHitbox);
+        textoPuntaje = new TextoHud(fuentePuntaje, "PUNTAJE: ");
+        textoRecord = new TextoHud(fuentePuntaje, "RECORD: ");
+        textoLlamadas = new TextoHud(fuentePuntaje, "DRAW CALLS: ");
 
         // Sonidos
-        sonidoSalto = Gdx.audio.newSound(Gdx.files.internal("jump.wav"));
-        sonidoGolpe = Gdx.audio.newSound(Gdx.files.internal("hit.wav"));
+        sonidoSalto = juego.recursos.sonido(Recursos.SALTO);
+        sonidoGolpe = juego.recursos.sonido(Recursos.GOLPE);
 
         // Preferencias
         preferencias = Gdx.app.getPreferences("DinoChromePrefs");
         record = preferencias.getInteger("highScore", 0);
 
-        // Texturas
-        texturaCactus = new Texture("cactus.png");
-        texturaPtero = new Texture("ptero.png");
-        texturaSuelo = new Texture("ground.png");
-
-        texturaDinoRun1 = new Texture("dino_run1.png");
-        texturaDinoRun2 = new Texture("dino_run2.png");
-        texturaDinoAgachado = new Texture("dino_duck.png");
+        // Sprites
+        regionCactus = juego.recursos.region(Recursos.CACTUS);
+        regionPtero = juego.recursos.region(Recursos.PTERO);
+        regionSuelo = juego.recursos.region(Recursos.SUELO);
 
         TextureRegion[] framesCorrer = new TextureRegion[] {
-            new TextureRegion(texturaDinoRun1),
-            new TextureRegion(texturaDinoRun2)
+            juego.recursos.region(Recursos.DINO_CORRER_1),
+            juego.recursos.region(Recursos.DINO_CORRER_2)
         };
 
         animacionCorrer = new Animation<>(0.30f, framesCorrer);
-        regionAgachado = new TextureRegion(texturaDinoAgachado);
+        regionAgachado = juego.recursos.region(Recursos.DINO_AGACHADO);
 
-        // Obstáculos
-        obstaculos = new Array<>();
-        random = new Random();
+        // Simulación (una semilla nueva por partida)
+        simulacion = new Simulacion(System.nanoTime(), true);
     }
 
     @Override
@@ -178,33 +140,33 @@ public class GameScreen implements Screen {
         juego.batch.begin();
 
         // Suelo
-        juego.batch.draw(texturaSuelo, 0, Y_SUELO - 40, ANCHO, 40);
+        juego.batch.draw(regionSuelo, 0, Y_SUELO - 40, ANCHO, 40);
 
-        // Dino
-        TextureRegion frameActual = estaAgachado
+        // Dino (entre el paso anterior y el actual)
+        TextureRegion frameActual = simulacion.dino.agachado
             ? regionAgachado
             : animacionCorrer.getKeyFrame(tiempoAnimacion, true);
 
-        juego.batch.draw(frameActual, dinoX, dinoY);
+        juego.batch.draw(frameActual, Simulacion.X_DINO, simulacion.getYDinoDibujo());
 
         // Obstáculos
-        for (Obstaculos obs : obstaculos) {
-            if (obs.type == Obstaculos.CACTUS) {
-                juego.batch.draw(texturaCactus, obs.x, obs.y, obs.width, obs.height);
-            } else {
-                juego.batch.draw(texturaPtero, obs.x, obs.y, obs.width, obs.height);
-            }
+        AlmacenObstaculos obs = simulacion.obstaculos;
+        for (int i = 0; i < obs.getCantidad(); i++) {
+            TextureRegion region = (obs.tipo[i] == AlmacenObstaculos.CACTUS) ? regionCactus : regionPtero;
+            juego.batch.draw(region, simulacion.getXDibujo(i), obs.y[i], obs.ancho[i], obs.alto[i]);
         }
 
         juego.batch.setColor(1f, 1f, 1f, 1f);
 
-        // HUD
+        // HUD (el texto va después de todos los sprites: la fuente es otra textura)
         float hudX = camara.position.x + camara.viewportWidth / 2 - 300;
         float hudY = camara.position.y + camara.viewportHeight / 2 - 20;
 
         fuentePuntaje.setColor(Color.BLACK);
-        fuentePuntaje.draw(juego.batch, "PUNTAJE: " + puntaje, hudX, hudY);
-        fuentePuntaje.draw(juego.batch, "RECORD: " + record, hudX, hudY - 25);
+        textoPuntaje.setValor(simulacion.getPuntaje());
+        textoRecord.setValor(record);
+        textoPuntaje.dibujar(juego.batch, hudX, hudY);
+        textoRecord.dibujar(juego.batch, hudX, hudY - 25);
 
         if (finDelJuego) {
             float margenIzq = 20;
@@ -223,7 +185,7 @@ public class GameScreen implements Screen {
 
         if (enPausa) {
             juego.batch.setColor(0f, 0f, 0f, 0.5f);
-            juego.batch.draw(texturaSuelo, 0, 0, ANCHO, ALTO);
+            juego.batch.draw(regionSuelo, 0, 0, ANCHO, ALTO);
             juego.batch.setColor(1f, 1f, 1f, 1f);
 
             fuenteFin.draw(juego.batch, "PAUSA", camara.position.x - 45, camara.position.y + 20);
@@ -231,7 +193,15 @@ public class GameScreen implements Screen {
             fuentePuntaje.draw(juego.batch, "M - Menu", camara.position.x - 55, camara.position.y - 30);
         }
 
+        if (juego.mostrarDepuracion) {
+            textoLlamadas.setValor(llamadasDibujo);
+            textoLlamadas.dibujar(juego.batch, hudX, hudY - 50);
+        }
+
         juego.batch.end();
+
+        // Del frame recién dibujado; se muestra en el siguiente (F3)
+        llamadasDibujo = juego.batch.renderCalls;
     }
 
     private void actualizar(float delta) {
@@ -242,7 +212,7 @@ public class GameScreen implements Screen {
 
         if (enPausa) {
             if (Gdx.input.isKeyJustPressed(Input.Keys.M)) {
-                juego.setScreen(new PantallaMenu(juego));
+                juego.mostrarMenu();
             }
             return;
         }
@@ -252,7 +222,7 @@ public class GameScreen implements Screen {
                 reiniciarPartida();
             }
             if (Gdx.input.isKeyJustPressed(Input.Keys.M)) {
-                juego.setScreen(new PantallaMenu(juego));
+                juego.mostrarMenu();
             }
             return;
         }
@@ -266,99 +236,49 @@ public class GameScreen implements Screen {
             esDeNoche = !esDeNoche;
         }
 
-        // Agacharse
-        estaAgachado = Gdx.input.isKeyPressed(Input.Keys.DOWN) && estaEnSuelo;
-
-        // Saltar
+        // Entrada: el salto queda guardado hasta el próximo paso de la simulación
         boolean presionoSalto = Gdx.input.isKeyJustPressed(Input.Keys.SPACE)
             || Gdx.input.isKeyJustPressed(Input.Keys.UP);
+        simulacion.setEntrada(presionoSalto, Gdx.input.isKeyPressed(Input.Keys.DOWN));
 
-        if (presionoSalto && estaEnSuelo) {
-            velocidadY = FUERZA_SALTO;
-            estaEnSuelo = false;
-            sonidoSalto.play();
-        }
-
-        // Física
-        velocidadY += GRAVEDAD * delta;
-        dinoY += velocidadY * delta;
-
-        if (dinoY <= Y_SUELO) {
-            dinoY = Y_SUELO;
-            velocidadY = 0f;
-            estaEnSuelo = true;
-        }
+        // Física, obstáculos, puntaje y choques: a paso fijo
+        simulacion.avanzar(delta);
 
-        // Spawn de obstáculos
-        temporizadorSpawn += delta;
-        if (temporizadorSpawn > 1.2f + random.nextFloat()) {
-            temporizadorSpawn = 0f;
-
-            if (random.nextBoolean()) {
-                obstaculos.add(new Obstaculos(
-                    ANCHO,
-                    Y_SUELO,
-                    20 + random.nextInt(10),
-                    30 + random.nextInt(10),
-                    Obstaculos.CACTUS
-                ));
-            } else {
-                float yPtero = random.nextBoolean() ? Y_SUELO + 15 : Y_SUELO + 30;
-                obstaculos.add(new Obstaculos(
-                    ANCHO,
-                    yPtero,
-                    40,
-                    20,
-                    Obstaculos.PTERO
-                ));
-            }
+        if (simulacion.getSaltos() != saltosSonados) {
+            saltosSonados = simulacion.getSaltos();
+            sonidoSalto.play();
         }
 
-        // Hitbox del dino
-        float altoActual = estaAgachado ? altoDinoAgachadoHitbox : altoDinoParadoHitbox;
-        hitboxDino.set(dinoX, dinoY, anchoDinoHitbox, altoActual);
-
-        // Mover obstáculos, sumar puntaje, colisiones
-        for (int i = obstaculos.size - 1; i >= 0; i--) {
-            Obstaculos obs = obstaculos.get(i);
-            obs.update(delta, velocidadJuego);
-
-            if (obs.x + obs.width < 0) {
-                obstaculos.removeIndex(i);
-                puntaje++;
-                continue;
-            }
-
-            if (obs.getBounds().overlaps(hitboxDino)) {
-                sonidoGolpe.play();
-                finDelJuego = true;
+        if (simulacion.isTerminada()) {
+            sonidoGolpe.play();
+            finDelJuego = true;
 
-                if (puntaje > record) {
-                    record = puntaje;
-                    preferencias.putInteger("highScore", record);
-                    preferencias.flush();
-                }
-            }
+            guardarRecord(simulacion.getPuntaje());
         }
 
-        // Aumentar velocidad y ajustar animación
-        velocidadJuego += delta * 2;
-
+        // Animación según la velocidad
         float ratioVelocidad = Math.min(
             1f,
-            (velocidadJuego - VELOCIDAD_BASE) / (VELOCIDAD_MAX - VELOCIDAD_BASE)
+            (simulacion.getVelocidad() - VELOCIDAD_BASE) / (VELOCIDAD_MAX - VELOCIDAD_BASE)
         );
 
         float duracionFrame = ANIM_LENTA - ratioVelocidad * (ANIM_LENTA - ANIM_RAPIDA);
         animacionCorrer.setFrameDuration(duracionFrame);
     }
 
+    // Contra lo guardado, no contra lo leído: el multijugador también lo sube
+    private void guardarRecord(int puntaje) {
+        int guardado = preferencias.getInteger("highScore", 0);
+        record = Math.max(puntaje, guardado);
+        if (puntaje <= guardado) return;
+
+        preferencias.putInteger("highScore", puntaje);
+        preferencias.flush();
+    }
+
     private void reiniciarPartida() {
-        obstaculos.clear();
-        dinoY = Y_SUELO;
-        velocidadY = 0f;
-        puntaje = 0;
-        velocidadJuego = 250f;
+        simulacion.reiniciar(System.nanoTime());
+        saltosSonados = 0;
         finDelJuego = false;
         tiempoAnimacion = 0f;
         tiempoDiaNoche = 0f;
@@ -366,6 +286,15 @@ public class GameScreen implements Screen {
         enPausa = false;
     }
 
+    /** Al volver desde el menú: partida nueva, con el récord como está guardado ahora. */
+    @Override
+    public void reset() {
+        record = preferencias.getInteger("highScore", 0);
+        fuentePuntaje.setColor(Color.BLACK);   // la fuente es compartida: el texto toma su color
+        textoRecord.setValor(record);
+        reiniciarPartida();
+    }
+
     @Override public void resize(int width, int height) {}
     @Override public void show() {}
     @Override public void hide() {}
@@ -374,15 +303,13 @@ public class GameScreen implements Screen {
 
     @Override
     public void dispose() {
-        texturaDinoRun1.dispose();
-        texturaDinoRun2.dispose();
-        texturaDinoAgachado.dispose();
-        texturaCactus.dispose();
-        texturaPtero.dispose();
-        texturaSuelo.dispose();
-        sonidoSalto.dispose();
-        sonidoGolpe.dispose();
-        fuentePuntaje.dispose();
-        fuenteFin.dispose();
+        juego.recursos.liberar(Recursos.DINO_CORRER_1);
+        juego.recursos.liberar(Recursos.DINO_CORRER_2);
+        juego.recursos.liberar(Recursos.DINO_AGACHADO);
+        juego.recursos.liberar(Recursos.CACTUS);
+        juego.recursos.liberar(Recursos.PTERO);
+        juego.recursos.liberar(Recursos.SUELO);
+        juego.recursos.liberar(Recursos.SALTO);
+        juego.recursos.liberar(Recursos.GOLPE);
     }
 }
@@ -1,6 +1,7 @@
 package com.dinochrome.game;
 
 import com.badlogic.gdx.Game;
+import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
@@ -11,15 +12,112 @@ public class LanzadorDelJuego extends Game {
 
     public SpriteBatch batch;
 
+    // Texturas y sonidos compartidos por las pantallas (cada una pide y devuelve los suyos)
+    public Recursos recursos;
+
+    // F3: datos de depuración en el HUD (llamadas de dibujo por frame)
+    public boolean mostrarDepuracion = false;
+
+    // Pantallas reutilizables: se crean la primera vez que se muestran y viven hasta el final
+    private PantallaMenu menu;
+    private GameScreen partida;
+    private PantallaControles controles;
+
+    // Cambio pedido durante un frame: se hace al terminarlo, nunca con la pantalla a medio dibujar
+    private Screen siguiente;
+
     @Override
     public void create() {
         batch = new SpriteBatch();
+        recursos = new Recursos();
+        recursos.precargar();
         Gdx.input.setCatchKey(Input.Keys.ESCAPE, true);
-        setScreen(new PantallaMenu(this));
+        mostrarMenu();
+        cambiarPantalla();
+    }
+
+    @Override
+    public void render() {
+        // La precarga avanza sola mientras se ve el menú (y si faltara algo, en cualquier pantalla)
+        if (!recursos.isListo()) recursos.actualizar();
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3)) mostrarDepuracion = !mostrarDepuracion;
+        super.render();
+        cambiarPantalla();
+    }
+
+    // -------------------------
+    // Cambio de pantalla
+    // -------------------------
+
+    public void mostrarMenu() {
+        if (menu == null) menu = new PantallaMenu(this);
+        pedir(menu);
+    }
+
+    public void mostrarPartida() {
+        if (partida == null) partida = new GameScreen(this);
+        pedir(partida);
+    }
+
+    public void mostrarControles() {
+        if (controles == null) controles = new PantallaControles(this);
+        pedir(controles);
+    }
+
+    /** El multijugador no se reutiliza: cada vez es otra conexión, y se cierra al salir de la pantalla. */
+    public void mostrarMultijugador() {
+        pedir(new PantallaMultijugador(this));
+    }
+
+    // Si en el mismo frame se pide otra, la que no se llegó a mostrar igual se cierra
+    private void pedir(Screen pantalla) {
+        descartarPedida();
+        siguiente = pantalla;
+    }
+
+    private void descartarPedida() {
+        if (siguiente != null && !(siguiente instanceof PantallaReutilizable)) siguiente.dispose();
+        siguiente = null;
+    }
+
+    // La reutilizable vuelve como nueva; la que no lo es se cierra apenas deja de verse
+    private void cambiarPantalla() {
+        if (siguiente == null) return;
+
+        Screen anterior = getScreen();
+        Screen nueva = siguiente;
+        siguiente = null;
+
+        if (nueva instanceof PantallaReutilizable) ((PantallaReutilizable) nueva).reset();
+        setScreen(nueva);
+
+        if (anterior != null && anterior != nueva && !(anterior instanceof PantallaReutilizable)) {
+            anterior.dispose();
+        }
     }
 
     @Override
     public void dispose() {
+        // Las pantallas primero: devuelven lo suyo a recursos
+        cerrarPantallas();
+
         batch.dispose();
+        recursos.dispose();
+    }
+
+    /** Cierra la pantalla actual, la pedida y las reutilizables. Llamarla otra vez no hace nada. */
+    void cerrarPantallas() {
+        Screen actual = getScreen();
+        screen = null;
+        if (actual != null) actual.hide();
+        if (actual != null && !(actual instanceof PantallaReutilizable)) actual.dispose();
+        descartarPedida();
+
+        if (menu != null) menu.dispose();
+        if (partida != null) partida.dispose();
+        if (controles != null) controles.dispose();
+        menu = null;
+        partida = null;
+        controles = null;
     }
 }
@@ -2,13 +2,12 @@ package com.dinochrome.game;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
-import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 
-public class PantallaControles implements Screen {
+public class PantallaControles implements PantallaReutilizable {
 
     private static final int ANCHO_VIRTUAL = 800;
     private static final int ALTO_VIRTUAL = 480;
@@ -85,10 +84,15 @@ public class PantallaControles implements Screen {
         boolean presionoEscape = Gdx.input.isKeyJustPressed(Input.Keys.ESCAPE);
 
         if (presionoM || presionoEscape) {
-            juego.setScreen(new PantallaMenu(juego));
+            juego.mostrarMenu();
         }
     }
 
+    @Override
+    public void reset() {
+        // Sin estado propio: se muestra siempre igual
+    }
+
     @Override public void show() {}
     @Override public void resize(int width, int height) {}
     @Override public void pause() {}
@@ -1,7 +1,6 @@
 package com.dinochrome.game;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
@@ -12,7 +11,7 @@ import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.math.Vector3;
 
 
-public class PantallaMenu implements Screen {
+public class PantallaMenu implements PantallaReutilizable {
 
     private final LanzadorDelJuego game;
     private OrthographicCamera camera;
@@ -30,13 +29,29 @@ public class PantallaMenu implements Screen {
     private float controlsHover = 0f;
     private float exitHover = 0f;
     private static final float HOVER_SPEED = 6f;
+    private static final Color EXIT_COLOR = new Color(1f, 0.9f, 0.9f, 1f);
+
+    // Textos fijos: se miden una vez, no en cada frame
+    private GlyphLayout titleLayout;
+    private GlyphLayout playLayout;
+    private GlyphLayout onlineLayout;
+    private GlyphLayout controlsLayout;
+    private GlyphLayout exitLayout;
+
+    // Mouse en coordenadas del mundo (reutilizado)
+    private final Vector3 mouse = new Vector3();
 
     private static final int BUTTON_START_Y = 230;
     private static final int BUTTON_GAP = 70;
     private float fadeAlpha = 0f;     // 0 = negro, 1 = visible
     private boolean fadingIn = true;
     private boolean fadingOut = false;
-    private Screen nextScreen;
+
+    // A dónde ir cuando termina el fade out (la pantalla se pide recién ahí, con todo ya cargado)
+    private static final int DESTINO_JUGAR = 1;
+    private static final int DESTINO_CONTROLES = 2;
+    private static final int DESTINO_ONLINE = 3;
+    private int destino = 0;
  // 🌥️ Nubes
     private float cloud1X = 100;
     private float cloud2X = 400;
@@ -59,6 +74,12 @@ public class PantallaMenu implements Screen {
         buttonFont.getData().setScale(1.5f);
         buttonFont.setColor(Color.BLACK);
 
+        titleLayout = new GlyphLayout(titleFont, "DINOSAURIO SAURIO");
+        playLayout = new GlyphLayout(buttonFont, "JUGAR");
+        onlineLayout = new GlyphLayout(buttonFont, "ONLINE");
+        controlsLayout = new GlyphLayout(buttonFont, "CONTROLES");
+        exitLayout = new GlyphLayout(buttonFont, "SALIR");
+
         shape = new ShapeRenderer();
 
         playButton = new Rectangle(300, BUTTON_START_Y, 200, 50);
@@ -69,7 +90,7 @@ public class PantallaMenu implements Screen {
     }
 
     private boolean isHover(Rectangle rect) {
-        Vector3 mouse = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
+        mouse.set(Gdx.input.getX(), Gdx.input.getY(), 0);
         camera.unproject(mouse);
         return rect.contains(mouse.x, mouse.y);
     }
@@ -124,8 +145,8 @@ public class PantallaMenu implements Screen {
             fadeAlpha -= delta * 1.5f;
             if (fadeAlpha <= 0f) {
                 fadeAlpha = 0f;
-                game.setScreen(nextScreen);
-
+                // Si la precarga no terminó se espera en negro (con la barra): después el cambio es instantáneo
+                if (game.recursos.isListo()) irADestino();
             }
         }
 
@@ -179,7 +200,7 @@ public class PantallaMenu implements Screen {
         drawButton(playButton, playHover, Color.WHITE);
         drawButton(onlineButton, onlineHover, Color.WHITE);
         drawButton(controlsButton, controlsHover, Color.WHITE);
-        drawButton(exitButton, exitHover, new Color(1f, 0.9f, 0.9f, 1f));
+        drawButton(exitButton, exitHover, EXIT_COLOR);
 
 
 
@@ -191,20 +212,13 @@ public class PantallaMenu implements Screen {
         game.batch.setProjectionMatrix(camera.combined);
         game.batch.begin();
 
-        GlyphLayout titleLayout = new GlyphLayout(titleFont, "DINOSAURIO SAURIO");
         float titleX = (vw - titleLayout.width) / 2;
         titleFont.draw(game.batch, titleLayout, titleX, vh - 80);
 
-        buttonFont.setColor(Color.BLACK);
-        buttonFont.draw(game.batch, "JUGAR", playButton.x + 60, playButton.y + 35);
-
-        buttonFont.setColor(Color.BLACK);
-        buttonFont.draw(game.batch, "ONLINE", onlineButton.x + 50, onlineButton.y + 35);
-
-        buttonFont.setColor(Color.BLACK);
-        buttonFont.draw(game.batch, "CONTROLES", controlsButton.x + 30, controlsButton.y + 35);
-
-        buttonFont.draw(game.batch, "SALIR", exitButton.x + 65, exitButton.y + 35);
+        buttonFont.draw(game.batch, playLayout, playButton.x + 60, playButton.y + 35);
+        buttonFont.draw(game.batch, onlineLayout, onlineButton.x + 50, onlineButton.y + 35);
+        buttonFont.draw(game.batch, controlsLayout, controlsButton.x + 30, controlsButton.y + 35);
+        buttonFont.draw(game.batch, exitLayout, exitButton.x + 65, exitButton.y + 35);
 
         game.batch.end();
 
@@ -212,26 +226,26 @@ public class PantallaMenu implements Screen {
         // INPUT
         // =========================
         if (Gdx.input.justTouched()) {
-            Vector3 touchPos = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
-            camera.unproject(touchPos);
+            mouse.set(Gdx.input.getX(), Gdx.input.getY(), 0);
+            camera.unproject(mouse);
 
-            float x = touchPos.x;
-            float y = touchPos.y;
+            float x = mouse.x;
+            float y = mouse.y;
 
             if (playButton.contains(x, y)) {
-                nextScreen = new GameScreen(game);
+                destino = DESTINO_JUGAR;
                 fadingOut = true;
             }
 
             if (controlsButton.contains(x, y)) {
-                nextScreen = new PantallaControles(game);
+                destino = DESTINO_CONTROLES;
                 fadingOut = true;
             }
             if (exitButton.contains(x, y)) {
                 Gdx.app.exit();
             }
             if (onlineButton.contains(x, y)) {
-                nextScreen = new PantallaMultijugador(game);
+                destino = DESTINO_ONLINE;
                 fadingOut = true;
             }
         }
@@ -246,6 +260,15 @@ public class PantallaMenu implements Screen {
      shape.begin(ShapeRenderer.ShapeType.Filled);
      shape.setColor(0f, 0f, 0f, 1f - fadeAlpha);
      shape.rect(0, 0, camera.viewportWidth, camera.viewportHeight);
+
+     // Barra de carga: arriba del fade, así se ve también si hay que esperar en negro
+     if (!game.recursos.isListo()) {
+         float anchoBarra = 200f;
+         shape.setColor(0.25f, 0.25f, 0.25f, 1f);
+         shape.rect(300, 6, anchoBarra, 4);
+         shape.setColor(1f, 1f, 1f, 1f);
+         shape.rect(300, 6, anchoBarra * game.recursos.getProgreso(), 4);
+     }
      shape.end();
 
      Gdx.gl.glDisable(GL20.GL_BLEND);
@@ -262,6 +285,27 @@ public class PantallaMenu implements Screen {
     @Override public void resume() {}
     @Override public void hide() {}
 
+    /** Al volver al menú: entra con el fade de nuevo, sin destino elegido. */
+    @Override
+    public void reset() {
+        fadeAlpha = 0f;
+        fadingIn = true;
+        fadingOut = false;
+        destino = 0;
+        playHover = 0f;
+        onlineHover = 0f;
+        controlsHover = 0f;
+        exitHover = 0f;
+    }
+
+    private void irADestino() {
+        switch (destino) {
+            case DESTINO_JUGAR: game.mostrarPartida(); break;
+            case DESTINO_ONLINE: game.mostrarMultijugador(); break;
+            default: game.mostrarControles(); break;
+        }
+    }
+
     private void drawButton(Rectangle r, float hover, Color color) {
         float scale = 1f + hover * 0.05f;
 
@@ -1,5 +1,6 @@
 package com.dinochrome.game;
 
+import java.net.InetSocketAddress;
 import java.util.Random;
 
 import com.badlogic.gdx.Gdx;
@@ -10,17 +11,25 @@ import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
-import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
-import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntIntMap;
 
+import com.dinochrome.game.net.BufferInterpolacion;
+import com.dinochrome.game.net.ColaEventos;
+import com.dinochrome.game.net.Correccion;
+import com.dinochrome.game.net.DescubridorServidor;
+import com.dinochrome.game.net.EstadoObstaculo;
 import com.dinochrome.game.net.GameClient;
 import com.dinochrome.game.net.PlayerState;
+import com.dinochrome.game.net.Prediccion;
+import com.dinochrome.game.net.Protocolo;
+import com.dinochrome.game.net.TickRed;
+import com.dinochrome.game.sim.AlmacenObstaculos;
+import com.dinochrome.game.sim.EstadoDino;
+import com.dinochrome.game.sim.FisicaDino;
+import com.dinochrome.game.sim.Simulacion;
 
 public class PantallaMultijugador implements Screen {
 
@@ -29,11 +38,7 @@ public class PantallaMultijugador implements Screen {
     // =========================
     private static final int ANCHO = 800;
     private static final int ALTO = 240;
-    private static final float Y_SUELO = 40f;
-
-    // Física
-    private static final float GRAVEDAD = -900f;
-    private static final float FUERZA_SALTO = 350f;
+    private static final float Y_SUELO = FisicaDino.Y_SUELO;
 
     // Velocidad de juego y animación
     private static final float VELOCIDAD_BASE = 200f;
@@ -41,6 +46,18 @@ public class PantallaMultijugador implements Screen {
     private static final float ANIM_LENTA = 0.22f;
     private static final float ANIM_RAPIDA = 0.14f;
 
+    // Red: envío a ritmo fijo (Hz configurable en preferencias) con latido mínimo
+    private static final int TICK_RED_HZ = 30;
+    private static final float LATIDO_RED = 0.5f;
+
+    // Jugadores por partida (igual que ServidorJuego.MAX_JUGADORES_POR_SALA)
+    private static final int MAX_JUGADORES = 8;
+
+    // Interpolación de los jugadores remotos
+    private static final float RETARDO_INTERPOLACION = 0.1f;
+    private static final float RETARDO_INTERPOLACION_MAXIMO = 0.25f;
+    private static final float EXTRAPOLACION_MAXIMA = 0.1f;
+
     // Día/noche (visual)
     private static final float TIEMPO_CAMBIO_DIA_NOCHE = 15f;
 
@@ -53,23 +70,28 @@ public class PantallaMultijugador implements Screen {
     // =========================
     // RED
     // =========================
-    private final GameClient cliente;
+    // null mientras se busca servidor: la búsqueda corre en su hilo y la pantalla sigue dibujando
+    private GameClient cliente;
+    private final DescubridorServidor descubridor;
+
+    // Los escribe el hilo del descubridor, los lee el render
+    private volatile float progresoBusqueda = 0f;
+    private volatile int encontradosBusqueda = 0;
+    private volatile boolean busquedaTerminada = false;
+    private volatile DescubridorServidor.Servidor servidorElegido;
 
     private boolean estoyEnLobby = true;
 
-    // Importante: mi id (1 o 2). Si no está asignado todavía, vale 0.
+    // Importante: mi id (1..MAX_JUGADORES). Si no está asignado todavía, vale 0.
     private int miId = 0;
 
     // =========================
-    // RECURSOS (TEXTURAS / SONIDOS / FUENTES)
+    // RECURSOS (SPRITES / SONIDOS / FUENTES)
     // =========================
-    private final Texture texturaSuelo;
-    private final Texture texturaCactus;
-    private final Texture texturaPtero;
-
-    private final Texture texturaDinoRun1;
-    private final Texture texturaDinoRun2;
-    private final Texture texturaDinoAgachado;
+    // Regiones del atlas: todos los sprites salen de una misma textura
+    private final TextureRegion regionSuelo;
+    private final TextureRegion regionCactus;
+    private final TextureRegion regionPtero;
 
     private final Animation<TextureRegion> animacionCorrer;
     private final TextureRegion regionAgachado;
@@ -80,6 +102,22 @@ public class PantallaMultijugador implements Screen {
     private final BitmapFont fuenteHud;
     private final BitmapFont fuenteTitulo;
 
+    // HUD: se rearma sólo cuando cambia el número
+    private final TextoHud textoPuntaje;
+    private final TextoHud textoRecord;
+    private final TextoHud textoConectados;
+    private final TextoHud textoSala;
+    private final TextoHud textoGanador;
+
+    // Búsqueda: dos textos uno al lado del otro ("Progreso: 40   Encontrados: 1")
+    private final TextoHud textoProgreso;
+    private final TextoHud textoEncontrados;
+    private static final float SEPARACION_BUSQUEDA = 24f;
+
+    // Llamadas de dibujo del último frame (para el contador de F3)
+    private final TextoHud textoLlamadas;
+    private int llamadasDibujo = 0;
+
     // =========================
     // ESTADO VISUAL
     // =========================
@@ -90,7 +128,6 @@ public class PantallaMultijugador implements Screen {
     // =========================
     // PUNTAJE / RECORD
     // =========================
-    private int puntaje = 0;
     private final Preferences preferencias;
     private int record;
 
@@ -98,36 +135,64 @@ public class PantallaMultijugador implements Screen {
     // JUEGO: FIN / GANADOR
     // =========================
     private boolean finDelJuego = false;
-    private int ganador = 0; // 0 ninguno, 1 jugador 1, 2 jugador 2
+    private int ganador = 0; // 0 ninguno (empate), si no el id del que quedó
 
     // =========================
-    // JUGADORES: POSICIÓN Y ESTADO
+    // JUGADORES: ARREGLOS PARALELOS (índice 0..cantidadJugadores-1)
     // =========================
-    private float xJ1 = 80f;
-    private float yJ1 = Y_SUELO;
-    private boolean agachadoJ1 = false;
-    private float velYJ1 = 0f;
-    private boolean enSueloJ1 = true;
-
-    private float xJ2 = 140f;
-    private float yJ2 = Y_SUELO;
-    private boolean agachadoJ2 = false;
-    private float velYJ2 = 0f;
-    private boolean enSueloJ2 = true;
+    private final int[] idJugador = new int[MAX_JUGADORES];
+    private final float[] xJugador = new float[MAX_JUGADORES];
+    private final float[] yJugador = new float[MAX_JUGADORES];
+    private final boolean[] agachadoJugador = new boolean[MAX_JUGADORES];
+    private final boolean[] vivoJugador = new boolean[MAX_JUGADORES];
+    private int cantidadJugadores = 0;
+
+    // Dónde estaba cada uno en el chequeo de choques anterior, y cuánto se habían
+    // corrido los obstáculos: el choque se barre entre eso y ahora
+    private final float[] xJugadorChequeo = new float[MAX_JUGADORES];
+    private final float[] yJugadorChequeo = new float[MAX_JUGADORES];
+    private double distanciaChequeo = 0;
+
+    // id -> índice en los arreglos (sin Integer de por medio)
+    private final IntIntMap indicePorId = new IntIntMap(MAX_JUGADORES * 2);
+    private int miIndice = -1;
 
     private static final float ANCHO_HITBOX = 30f;
     private static final float ALTO_PARADO = 40f;
     private static final float ALTO_AGACHADO = 25f;
 
-    private final Rectangle hitboxJ1 = new Rectangle();
-    private final Rectangle hitboxJ2 = new Rectangle();
+    // Tinte por id para distinguirlos (el 1 va sin tinte)
+    private static final float[] TINTE_R = {1f, 0.85f, 0.85f, 1f, 1f, 0.85f, 1f, 0.8f};
+    private static final float[] TINTE_G = {1f, 1f, 0.85f, 0.85f, 1f, 1f, 0.9f, 0.8f};
+    private static final float[] TINTE_B = {1f, 0.85f, 1f, 0.85f, 0.8f, 1f, 0.7f, 0.8f};
+    private static final String[] ETIQUETAS = {"P1", "P2", "P3", "P4", "P5", "P6", "P7", "P8"};
+
+    // Reutilizado cada frame para enviar mi estado
+    private final PlayerState miEstado = new PlayerState();
+
+    // Envío de red desacoplado de los FPS del monitor
+    private final TickRed tickRed;
+
+    // Mi dino: predicción local + historial de entradas para reconciliar con el servidor
+    private final Prediccion prediccion = new Prediccion(128);
+
+    // Instantáneas de cada remoto (mismo índice que los arreglos): se dibujan un poco
+    // en el pasado para absorber el jitter
+    private final BufferInterpolacion[] interpolacion = new BufferInterpolacion[MAX_JUGADORES];
 
     // =========================
     // OBSTÁCULOS
     // =========================
-    private final Array<Obstaculos> obstaculos = new Array<>();
+    // Los obstáculos llegan del servidor; la simulación los mueve a paso fijo y cuenta el puntaje
+    private final Simulacion simulacion = new Simulacion(0L, false);
     private final Random random = new Random(); // por si querés cosas visuales, no para lógica de red
-    private float velocidadJuego = 250f;
+
+    // El salto apretado en un frame sin pasos espera al próximo paso
+    private boolean saltoPendiente = false;
+
+    // Cuándo llegó el START: referencia para saber por qué tick va el servidor si
+    // todavía no hay reloj sincronizado (o el servidor habla texto)
+    private long inicioPartidaNanos = 0;
 
     public PantallaMultijugador(LanzadorDelJuego juego) {
         this.juego = juego;
@@ -135,69 +200,171 @@ public class PantallaMultijugador implements Screen {
         camara = new OrthographicCamera();
         camara.setToOrtho(false, ANCHO, ALTO);
 
-        // Red
-        cliente = new GameClient();
-        configurarCallbacksDeRed();
-
         // Preferencias
         preferencias = Gdx.app.getPreferences("DinoChromePrefs");
         record = preferencias.getInteger("highScore", 0);
+        tickRed = new TickRed(preferencias.getInteger("netTickHz", TICK_RED_HZ), LATIDO_RED);
 
-        // Recursos
-        texturaSuelo = new Texture("ground.png");
-        texturaCactus = new Texture("cactus.png");
-        texturaPtero = new Texture("ptero.png");
+        // Red: se prueba primero el último servidor que anduvo
+        descubridor = new DescubridorServidor(DescubridorServidor.PUERTO, leerServidorConocido());
 
-        texturaDinoRun1 = new Texture("dino_run1.png");
-        texturaDinoRun2 = new Texture("dino_run2.png");
-        texturaDinoAgachado = new Texture("dino_duck.png");
+        // Recursos
+        regionSuelo = juego.recursos.region(Recursos.SUELO);
+        regionCactus = juego.recursos.region(Recursos.CACTUS);
+        regionPtero = juego.recursos.region(Recursos.PTERO);
 
         TextureRegion[] frames = new TextureRegion[] {
-            new TextureRegion(texturaDinoRun1),
-            new TextureRegion(texturaDinoRun2)
+            juego.recursos.region(Recursos.DINO_CORRER_1),
+            juego.recursos.region(Recursos.DINO_CORRER_2)
         };
         animacionCorrer = new Animation<>(0.30f, frames);
-        regionAgachado = new TextureRegion(texturaDinoAgachado);
+        regionAgachado = juego.recursos.region(Recursos.DINO_AGACHADO);
+
+        sonidoSalto = juego.recursos.sonido(Recursos.SALTO);
+        sonidoGolpe = juego.recursos.sonido(Recursos.GOLPE);
+
+        // Fuentes (compartidas, ya cargadas desde el caché)
+        fuenteHud = juego.recursos.fuente(Recursos.FUENTE_HUD);
+        fuenteTitulo = juego.recursos.fuente(Recursos.FUENTE_TITULO);
+
+        textoPuntaje = new TextoHud(fuenteHud, "PUNTAJE: ");
+        textoRecord = new TextoHud(fuenteHud, "RECORD: ");
+        textoConectados = new TextoHud(fuenteHud, "Jugadores conectados: ");
+        textoSala = new TextoHud(fuenteHud, "Sala ");
+        textoGanador = new TextoHud(fuenteTitulo, "GANA JUGADOR ");
+        textoProgreso = new TextoHud(fuenteHud, "Progreso: ");
+        textoEncontrados = new TextoHud(fuenteHud, "Encontrados: ");
+        textoLlamadas = new TextoHud(fuenteHud, "DRAW CALLS: ");
+
+        for (int i = 0; i < MAX_JUGADORES; i++) {
+            interpolacion[i] = new BufferInterpolacion(32, RETARDO_INTERPOLACION, EXTRAPOLACION_MAXIMA);
+        }
 
-        sonidoSalto = Gdx.audio.newSound(Gdx.files.internal("jump.wav"));
-        sonidoGolpe = Gdx.audio.newSound(Gdx.files.internal("hit.wav"));
+        buscarServidor();
+    }
 
-        // Fuentes
-        FreeTypeFontGenerator generador = new FreeTypeFontGenerator(Gdx.files.internal("font.ttf"));
+    // -------------------------
+    // Búsqueda de servidor
+    // -------------------------
+    private void buscarServidor() {
+        progresoBusqueda = 0f;
+        encontradosBusqueda = 0;
+        servidorElegido = null;
+        busquedaTerminada = false;
+
+        descubridor.iniciar(new DescubridorServidor.Escucha() {
+            @Override
+            public void progreso(float fraccion, int encontrados) {
+                progresoBusqueda = fraccion;
+                encontradosBusqueda = encontrados;
+            }
 
-        FreeTypeFontParameter paramHud = new FreeTypeFontParameter();
-        paramHud.size = 14;
-        paramHud.color = Color.BLACK;
-        paramHud.characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789:!?. ";
-        fuenteHud = generador.generateFont(paramHud);
+            @Override
+            public void terminado(DescubridorServidor.Servidor elegido) {
+                servidorElegido = elegido;
+                busquedaTerminada = true;
+            }
+        });
+    }
 
-        FreeTypeFontParameter paramTitulo = new FreeTypeFontParameter();
-        paramTitulo.size = 28;
-        paramTitulo.color = Color.BLACK;
-        paramTitulo.characters = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789:!?. ";
-        fuenteTitulo = generador.generateFont(paramTitulo);
+    private void actualizarBusqueda() {
+        if (!busquedaTerminada) return;
 
-        generador.dispose();
+        DescubridorServidor.Servidor s = servidorElegido;
+        if (s != null) {
+            cliente = new GameClient(s, 0);
+            guardarServidorConocido(s.direccion);
+            return;
+        }
 
-        // Inicializar hitboxes
-        actualizarHitboxes();
+        // Nadie contestó
+        if (Gdx.input.isKeyJustPressed(Input.Keys.R)) {
+            buscarServidor();
+        } else if (Gdx.input.isKeyJustPressed(Input.Keys.M)) {
+            juego.mostrarMenu();
+        }
     }
 
-    private void configurarCallbacksDeRed() {
-        // Recibir obstáculos desde red: siempre en el hilo de render
-        cliente.onObstacleReceived = (os) -> {
-            Gdx.app.postRunnable(() -> {
-                int tipo = (os.type == 0) ? Obstaculos.CACTUS : Obstaculos.PTERO;
+    // "ip:puerto" del último servidor al que se pudo conectar, o null
+    private InetSocketAddress leerServidorConocido() {
+        String guardado = preferencias.getString("ultimoServidor", "");
+        int i = guardado.lastIndexOf(':');
+        if (i <= 0) return null;
 
-                Obstaculos nuevo = new Obstaculos(os.x, os.y, os.width, os.height, tipo);
-                obstaculos.add(nuevo);
-            });
-        };
+        try {
+            return new InetSocketAddress(guardado.substring(0, i), Integer.parseInt(guardado.substring(i + 1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 
-        // Arranque de partida
-        cliente.onStartGame = () -> {
-            Gdx.app.postRunnable(() -> iniciarPartidaDesdeLobby());
-        };
+    private void guardarServidorConocido(InetSocketAddress direccion) {
+        preferencias.putString("ultimoServidor", direccion.getAddress().getHostAddress() + ":" + direccion.getPort());
+        preferencias.flush();
+    }
+
+    /**
+     * Vacía la cola de eventos del cliente una vez por frame, en el hilo de render.
+     * Los eventos se aplican en el orden en que llegaron; lo que llegue durante el
+     * vaciado queda para el frame siguiente.
+     */
+    private void procesarEventosDeRed() {
+        ColaEventos cola = cliente.eventos;
+        int cantidad = cola.abrirLote();
+
+        for (int i = 0; i < cantidad; i++) {
+            ColaEventos.Evento e = cola.siguiente();
+
+            switch (e.tipo) {
+                case ColaEventos.INICIO:
+                    inicioPartidaNanos = e.recibidoNanos;
+                    iniciarPartidaDesdeLobby();
+                    break;
+                case ColaEventos.ESTADO:
+                    guardarEstadoRemoto(e.jugador, e.recibidoNanos);
+                    break;
+                case ColaEventos.OBSTACULO:
+                    agregarObstaculo(e.obstaculo);
+                    break;
+                case ColaEventos.CORRECCION:
+                    aplicarCorreccion(e.correccion);
+                    break;
+                case ColaEventos.FIN:
+                    // Manda el servidor: si la detección local (sólo texto) ya había
+                    // terminado, se queda con el ganador que dice él
+                    if (estoyEnLobby) break;
+                    if (finDelJuego) {
+                        ganador = e.ganador;
+                    } else {
+                        terminarPartidaConGanador(e.ganador);
+                    }
+                    break;
+                default:
+                    break;
+            }
+
+            cola.liberar();
+        }
+    }
+
+    /**
+     * El OBST dice dónde apareció y en qué tick del servidor. Si llegó tarde
+     * (o desordenado) se lo corre lo que ya avanzó desde entonces, así todos
+     * los clientes lo ven en el mismo lugar aunque les llegue en distinto momento.
+     */
+    private void agregarObstaculo(EstadoObstaculo os) {
+        int tipo = (os.type == 0) ? AlmacenObstaculos.CACTUS : AlmacenObstaculos.PTERO;
+
+        float x = os.x;
+        if (os.tick >= 0) {
+            long aparicion = cliente.reloj.conoceTicks()
+                ? cliente.reloj.tickALocal(os.tick)
+                : inicioPartidaNanos + os.tick * (1_000_000_000L / Protocolo.TICK_HZ_SERVIDOR);
+            float atraso = (System.nanoTime() - aparicion) / 1_000_000_000f;
+            if (atraso > 0f) x -= simulacion.getVelocidad() * atraso;
+        }
+
+        simulacion.agregarObstaculo(x, os.y, os.width, os.height, tipo);
     }
 
     private void iniciarPartidaDesdeLobby() {
@@ -205,28 +372,60 @@ public class PantallaMultijugador implements Screen {
         estoyEnLobby = false;
         finDelJuego = false;
         ganador = 0;
-        puntaje = 0;
 
-        // Reset posiciones por si venís de una partida anterior
-        xJ1 = 80f;  yJ1 = Y_SUELO;  agachadoJ1 = false; velYJ1 = 0f; enSueloJ1 = true;
-        xJ2 = 140f; yJ2 = Y_SUELO; agachadoJ2 = false; velYJ2 = 0f; enSueloJ2 = true;
+        // Los jugadores se vuelven a registrar a medida que llegan sus estados
+        for (int i = 0; i < cantidadJugadores; i++) interpolacion[i].limpiar();
+        cantidadJugadores = 0;
+        indicePorId.clear();
+        miIndice = -1;
+        registrarLocal();
 
-        velocidadJuego = 250f;
+        prediccion.reiniciar();
+        tickRed.reiniciar();
+        miEstado.playerId = 0;
+
+        simulacion.reiniciar(0L);
+        distanciaChequeo = 0;
+        saltoPendiente = false;
         tiempoAnimacion = 0f;
         tiempoDiaNoche = 0f;
         esDeNoche = false;
+    }
 
-        // Obstáculos limpitos
-        for (Obstaculos o : obstaculos) {
-            o.dispose();
-        }
-        obstaculos.clear();
+    // -------------------------
+    // Alta de jugadores
+    // -------------------------
+
+    /** Índice del jugador con ese id; lo agrega si es nuevo. -1 si no hay lugar. */
+    private int indiceDe(int id) {
+        int i = indicePorId.get(id, -1);
+        if (i >= 0 || cantidadJugadores == MAX_JUGADORES) return i;
+
+        i = cantidadJugadores++;
+        idJugador[i] = id;
+        xJugador[i] = 80f + (id - 1) * 60f;
+        yJugador[i] = Y_SUELO;
+        xJugadorChequeo[i] = xJugador[i];
+        yJugadorChequeo[i] = Y_SUELO;
+        agachadoJugador[i] = false;
+        vivoJugador[i] = true;
+        interpolacion[i].limpiar();
+        indicePorId.put(id, i);
+        return i;
+    }
 
-        actualizarHitboxes();
+    private void registrarLocal() {
+        if (miIndice < 0 && miId != 0) miIndice = indiceDe(miId);
     }
 
     @Override
     public void render(float delta) {
+        if (cliente == null) {
+            actualizarBusqueda();
+            dibujar();
+            return;
+        }
+
         // Actualizar id por si el cliente lo asigna después
         miId = cliente.myId;
 
@@ -235,17 +434,15 @@ public class PantallaMultijugador implements Screen {
     }
 
     private void actualizar(float delta) {
+        // =========================
+        // RED (START, estado remoto, obstáculos)
+        // =========================
+        procesarEventosDeRed();
+
         // =========================
         // LOBBY
         // =========================
         if (estoyEnLobby) {
-            // Si el cliente marca que ya arranca (por flag)
-            if (cliente.startGame) {
-                cliente.startGame = false;
-                iniciarPartidaDesdeLobby();
-                return;
-            }
-
             // Marcar ready
             if (!cliente.ready && Gdx.input.isKeyJustPressed(Input.Keys.ENTER)) {
                 cliente.sendReady();
@@ -259,7 +456,7 @@ public class PantallaMultijugador implements Screen {
         // =========================
         if (finDelJuego) {
             if (Gdx.input.isKeyJustPressed(Input.Keys.M)) {
-                juego.setScreen(new PantallaMenu(juego));
+                juego.mostrarMenu();
             }
             return;
         }
@@ -278,154 +475,181 @@ public class PantallaMultijugador implements Screen {
         // =========================
         // ENTRADA Y FÍSICA SOLO DEL LOCAL
         // =========================
-        if (miId == 1) {
-            leerEntradaYFisicaLocal(delta, true);
-        } else if (miId == 2) {
-            leerEntradaYFisicaLocal(delta, false);
-        } else {
-            // Si miId todavía no está listo, ¿qué hacemos?
-            // Yo prefiero no simular nada todavía para evitar estados raros.
+        registrarLocal();
+        if (miIndice < 0) {
+            // Sin id todavía no se simula nada, para evitar estados raros
             return;
         }
 
+        // Obstáculos y mi predicción avanzan juntos, en los mismos pasos fijos
+        int pasos = simulacion.avanzar(delta);
+        if (vivoJugador[miIndice]) {
+            leerEntradaYFisicaLocal(pasos);
+        }
+
         // =========================
-        // ENVIAR MI ESTADO
+        // ENVIAR MI ESTADO (A RITMO FIJO, NO POR FRAME)
         // =========================
-        enviarMiEstado();
+        if (tickRed.avanzar(delta)) {
+            cliente.sendInputs(miId, prediccion);
+            enviarMiEstado();
+        }
 
         // =========================
-        // APLICAR ESTADO REMOTO (SIN FÍSICA LOCAL)
+        // ESTADO REMOTO (INTERPOLADO, SIN FÍSICA LOCAL)
         // =========================
-        aplicarEstadoRemoto();
+        aplicarEstadosRemotos();
 
         // =========================
         // OBSTÁCULOS + COLISIONES
         // =========================
-        actualizarHitboxes();
-
-        for (int i = obstaculos.size - 1; i >= 0; i--) {
-            Obstaculos o = obstaculos.get(i);
-
-            // Movimiento local (asumiendo que ambos simulan igual)
-            o.update(delta, velocidadJuego);
-
-            if (o.x + o.width < 0) {
-                obstaculos.removeIndex(i);
-                puntaje++;
-                continue;
-            }
-
-            if (o.getBounds().overlaps(hitboxJ1)) {
-                terminarPartidaConGanador(2);
-                break;
-            }
-
-            if (o.getBounds().overlaps(hitboxJ2)) {
-                terminarPartidaConGanador(1);
-                break;
+        eliminarChocados();
+
+        // Queda uno (o ninguno): terminó. Con el binario lo decide el servidor (FIN)
+        if (!cliente.isBinario() && !finDelJuego && cantidadJugadores > 1) {
+            int vivos = 0;
+            int ultimoVivo = 0;
+            for (int j = 0; j < cantidadJugadores; j++) {
+                if (!vivoJugador[j]) continue;
+                vivos++;
+                ultimoVivo = idJugador[j];
             }
+            if (vivos <= 1) terminarPartidaConGanador(vivos == 1 ? ultimoVivo : 0);
         }
 
         // =========================
         // VELOCIDAD Y ANIMACIÓN
         // =========================
-        velocidadJuego += delta * 2f;
-
-        float ratio = Math.min(1f, (velocidadJuego - VELOCIDAD_BASE) / (VELOCIDAD_MAX - VELOCIDAD_BASE));
+        float ratio = Math.min(1f, (simulacion.getVelocidad() - VELOCIDAD_BASE) / (VELOCIDAD_MAX - VELOCIDAD_BASE));
         float duracionFrame = ANIM_LENTA - ratio * (ANIM_LENTA - ANIM_RAPIDA);
         animacionCorrer.setFrameDuration(duracionFrame);
     }
 
-    private void leerEntradaYFisicaLocal(float delta, boolean soyJugador1) {
+    private void leerEntradaYFisicaLocal(int pasos) {
         // Entrada
         boolean teclaAgachar = Gdx.input.isKeyPressed(Input.Keys.DOWN) || Gdx.input.isKeyPressed(Input.Keys.S);
         boolean teclaSaltar = Gdx.input.isKeyJustPressed(Input.Keys.SPACE)
             || Gdx.input.isKeyJustPressed(Input.Keys.UP)
             || Gdx.input.isKeyJustPressed(Input.Keys.W);
 
-        if (soyJugador1) {
-            agachadoJ1 = teclaAgachar && enSueloJ1;
+        if (teclaSaltar) saltoPendiente = true;
 
-            if (teclaSaltar && enSueloJ1) {
-                velYJ1 = FUERZA_SALTO;
-                enSueloJ1 = false;
+        // Predicción: una entrada por paso fijo, con su número de secuencia (el servidor
+        // simula los mismos deltas y llega al mismo resultado)
+        for (int k = 0; k < pasos; k++) {
+            if (prediccion.aplicar(saltoPendiente, teclaAgachar, Simulacion.PASO)) {
                 sonidoSalto.play();
             }
+            saltoPendiente = false;
+        }
+        copiarPrediccion();
+    }
 
-            // Física
-            velYJ1 += GRAVEDAD * delta;
-            yJ1 += velYJ1 * delta;
+    // Corrección autoritativa del servidor: reconciliar y volver a predecir
+    private void aplicarCorreccion(Correccion c) {
+        if (miIndice < 0) return;
 
-            if (yJ1 <= Y_SUELO) {
-                yJ1 = Y_SUELO;
-                velYJ1 = 0f;
-                enSueloJ1 = true;
-            }
+        prediccion.reconciliar(c);
+        copiarPrediccion();
+    }
 
-        } else {
-            agachadoJ2 = teclaAgachar && enSueloJ2;
+    // La velocidad y el suelo del local quedan en la predicción; acá sólo lo que se dibuja
+    private void copiarPrediccion() {
+        EstadoDino d = prediccion.estado;
+        yJugador[miIndice] = d.y;
+        agachadoJugador[miIndice] = d.agachado;
+    }
 
-            if (teclaSaltar && enSueloJ2) {
-                velYJ2 = FUERZA_SALTO;
-                enSueloJ2 = false;
-                sonidoSalto.play();
-            }
+    private void enviarMiEstado() {
+        PlayerState estado = miEstado;
 
-            // Física
-            velYJ2 += GRAVEDAD * delta;
-            yJ2 += velYJ2 * delta;
+        float x = xJugador[miIndice];
+        float y = yJugador[miIndice];
+        boolean agachado = agachadoJugador[miIndice];
 
-            if (yJ2 <= Y_SUELO) {
-                yJ2 = Y_SUELO;
-                velYJ2 = 0f;
-                enSueloJ2 = true;
-            }
-        }
-    }
+        // Si no cambió nada, sólo se manda cuando toca el latido
+        boolean cambio = estado.playerId != miId
+            || estado.x != x
+            || estado.y != y
+            || estado.ducking != agachado;
 
-    private void enviarMiEstado() {
-        PlayerState estado = new PlayerState();
-        estado.playerId = miId;
+        if (!tickRed.debeEnviar(cambio)) return;
 
-        if (miId == 1) {
-            estado.x = xJ1;
-            estado.y = yJ1;
-            estado.ducking = agachadoJ1;
-        } else {
-            estado.x = xJ2;
-            estado.y = yJ2;
-            estado.ducking = agachadoJ2;
-        }
+        estado.playerId = miId;
+        estado.x = x;
+        estado.y = y;
+        estado.ducking = agachado;
 
         cliente.send(estado);
     }
 
-    private void aplicarEstadoRemoto() {
-        PlayerState otro = cliente.otherPlayer;
-        if (otro == null) return;
-        if (otro.playerId == miId) return;
+    private void guardarEstadoRemoto(PlayerState otro, long recibidoNanos) {
+        if (otro.playerId == miId || otro.playerId <= 0) return;
 
-        // Si yo soy 1, el otro es 2; si yo soy 2, el otro es 1
-        if (miId == 1 && otro.playerId == 2) {
-            xJ2 = otro.x;
-            yJ2 = otro.y;
-            agachadoJ2 = otro.ducking;
+        int i = indiceDe(otro.playerId);
+        if (i < 0) return;
+        interpolacion[i].agregar(recibidoNanos, otro.x, otro.y, otro.ducking);
+    }
 
-            // Nota: enSuelo/velY del remoto no se simulan. Se dejan como estaban.
+    private void aplicarEstadosRemotos() {
+        long ahora = System.nanoTime();
 
-        } else if (miId == 2 && otro.playerId == 1) {
-            xJ1 = otro.x;
-            yJ1 = otro.y;
-            agachadoJ1 = otro.ducking;
+        // Con más jitter hace falta más colchón para no quedarse sin instantáneas; los
+        // remotos mandan al mismo ritmo que yo (netTickHz), así que cada hueco es un período
+        float retardo = RETARDO_INTERPOLACION;
+        if (cliente.reloj.isSincronizado()) {
+            retardo = Math.min(RETARDO_INTERPOLACION_MAXIMO,
+                Math.max(RETARDO_INTERPOLACION, tickRed.getPeriodo() + 2f * cliente.reloj.getJitterMillis() / 1000f));
         }
-    }
 
-    private void actualizarHitboxes() {
-        float alto1 = agachadoJ1 ? ALTO_AGACHADO : ALTO_PARADO;
-        hitboxJ1.set(xJ1, yJ1, ANCHO_HITBOX, alto1);
+        for (int i = 0; i < cantidadJugadores; i++) {
+            if (i == miIndice) continue;
+
+            BufferInterpolacion b = interpolacion[i];
+            b.setRetardo(retardo);
+            if (!b.muestrear(ahora)) continue;
+
+            // La extrapolación puede pasarse del suelo en plena caída
+            xJugador[i] = b.x;
+            yJugador[i] = Math.max(Y_SUELO, b.y);
+            agachadoJugador[i] = b.agachado;
+        }
+    }
 
-        float alto2 = agachadoJ2 ? ALTO_AGACHADO : ALTO_PARADO;
-        hitboxJ2.set(xJ2, yJ2, ANCHO_HITBOX, alto2);
+    /**
+     * Cada dino vivo contra los obstáculos; el que toca queda afuera. Se barre
+     * desde el chequeo anterior (un frame puede traer varios pasos, o un tirón):
+     * lo que corrió el dino más lo que corrieron los obstáculos, así un cactus
+     * angosto no se saltea aunque el frame sea largo.
+     *
+     * Con el servidor binario sólo se prueba el local: los remotos se dibujan en
+     * el pasado (interpolados) contra obstáculos del presente, y los choques de
+     * ellos los adjudica el servidor. Con uno de texto se prueban todos.
+     */
+    private void eliminarChocados() {
+        AlmacenObstaculos obs = simulacion.obstaculos;
+
+        double distancia = simulacion.getDistancia();
+        float avance = (float) (distancia - distanciaChequeo);
+        distanciaChequeo = distancia;
+
+        boolean soloLocal = cliente.isBinario();
+
+        for (int j = 0; j < cantidadJugadores; j++) {
+            float x = xJugador[j];
+            float y = yJugador[j];
+            float dx = (x - xJugadorChequeo[j]) + avance;
+            float dy = y - yJugadorChequeo[j];
+            xJugadorChequeo[j] = x;
+            yJugadorChequeo[j] = y;
+
+            if (!vivoJugador[j] || (soloLocal && j != miIndice)) continue;
+
+            float alto = agachadoJugador[j] ? ALTO_AGACHADO : ALTO_PARADO;
+            if (obs.impactoBarrido(x, y, x + ANCHO_HITBOX, y + alto, dx, dy) >= 0f) {
+                vivoJugador[j] = false;
+            }
+        }
     }
 
     private void terminarPartidaConGanador(int ganador) {
@@ -434,6 +658,7 @@ public class PantallaMultijugador implements Screen {
         sonidoGolpe.play();
 
         // Guardar record local
+        int puntaje = simulacion.getPuntaje();
         if (puntaje > record) {
             record = puntaje;
             preferencias.putInteger("highScore", record);
@@ -457,81 +682,111 @@ public class PantallaMultijugador implements Screen {
 
         if (estoyEnLobby) {
             dibujarLobby();
-            juego.batch.end();
-            return;
+        } else {
+            dibujarJuego();
         }
 
-        dibujarJuego();
-
         juego.batch.end();
+
+        // Del frame recién dibujado; se muestra en el siguiente (F3)
+        llamadasDibujo = juego.batch.renderCalls;
     }
 
     private void dibujarLobby() {
         fuenteTitulo.setColor(Color.BLACK);
         fuenteHud.setColor(Color.BLACK);
 
+        if (cliente == null) {
+            dibujarBusqueda();
+            return;
+        }
+
         fuenteTitulo.draw(juego.batch, "LOBBY", camara.position.x - 60, camara.position.y + 40);
-        fuenteHud.draw(juego.batch, "Jugadores conectados: " + cliente.playerCount, camara.position.x - 120, camara.position.y);
+        textoConectados.setValor(cliente.playerCount);
+        textoConectados.dibujar(juego.batch, camara.position.x - 120, camara.position.y);
+        if (cliente.sala != 0) {
+            textoSala.setValor(cliente.sala);
+            textoSala.dibujar(juego.batch, camara.position.x - 40, camara.position.y + 70);
+        }
 
         if (!cliente.ready) {
             fuenteHud.draw(juego.batch, "Presiona ENTER para listo", camara.position.x - 130, camara.position.y - 30);
         } else {
-            fuenteHud.draw(juego.batch, "Esperando al otro jugador...", camara.position.x - 140, camara.position.y - 30);
+            fuenteHud.draw(juego.batch, "Esperando a los demas jugadores...", camara.position.x - 170, camara.position.y - 30);
+        }
+    }
+
+    private void dibujarBusqueda() {
+        fuenteTitulo.draw(juego.batch, "BUSCANDO SERVIDOR", camara.position.x - 170, camara.position.y + 40);
+
+        if (!busquedaTerminada) {
+            // La fuente no trae % ni paréntesis
+            float x = camara.position.x - 120;
+            textoProgreso.setValor((int) (progresoBusqueda * 100));
+            textoEncontrados.setValor(encontradosBusqueda);
+            textoProgreso.dibujar(juego.batch, x, camara.position.y);
+            textoEncontrados.dibujar(juego.batch, x + textoProgreso.getAncho() + SEPARACION_BUSQUEDA, camara.position.y);
+        } else if (servidorElegido == null) {
+            fuenteHud.draw(juego.batch, "No se encontro servidor", camara.position.x - 110, camara.position.y);
+            fuenteHud.draw(juego.batch, "R para reintentar. M para volver al menu", camara.position.x - 190, camara.position.y - 30);
         }
     }
 
     private void dibujarJuego() {
         // Suelo
-        juego.batch.draw(texturaSuelo, 0, Y_SUELO - 40, ANCHO, 40);
+        juego.batch.draw(regionSuelo, 0, Y_SUELO - 40, ANCHO, 40);
 
-        // Dino 1
-        TextureRegion frameJ1 = agachadoJ1
-            ? regionAgachado
-            : animacionCorrer.getKeyFrame(tiempoAnimacion, true);
+        // Dinos (tinte leve por id para distinguirlos; los eliminados, transparentes)
+        TextureRegion frameCorrer = animacionCorrer.getKeyFrame(tiempoAnimacion, true);
 
-        juego.batch.setColor(1f, 1f, 1f, 1f);
-        juego.batch.draw(frameJ1, xJ1, yJ1);
+        for (int i = 0; i < cantidadJugadores; i++) {
+            int t = (idJugador[i] - 1) & (MAX_JUGADORES - 1);
+            juego.batch.setColor(TINTE_R[t], TINTE_G[t], TINTE_B[t], vivoJugador[i] ? 1f : 0.35f);
+            juego.batch.draw(agachadoJugador[i] ? regionAgachado : frameCorrer, xJugador[i], yJugador[i]);
+        }
 
-        // Dino 2 (tinte leve para distinguir)
-        TextureRegion frameJ2 = agachadoJ2
-            ? regionAgachado
-            : animacionCorrer.getKeyFrame(tiempoAnimacion, true);
+        juego.batch.setColor(1f, 1f, 1f, 1f);
 
-        juego.batch.setColor(0.85f, 1f, 0.85f, 1f);
-        juego.batch.draw(frameJ2, xJ2, yJ2);
+        // Obstáculos (entre el paso anterior y el actual)
+        AlmacenObstaculos obs = simulacion.obstaculos;
+        for (int i = 0; i < obs.getCantidad(); i++) {
+            TextureRegion region = (obs.tipo[i] == AlmacenObstaculos.CACTUS) ? regionCactus : regionPtero;
+            juego.batch.draw(region, simulacion.getXDibujo(i), obs.y[i], obs.ancho[i], obs.alto[i]);
+        }
 
-        juego.batch.setColor(1f, 1f, 1f, 1f);
+        // Texto después de todos los sprites: la fuente es otra textura y cada cambio corta el lote
 
         // Indicadores
         fuenteHud.setColor(Color.BLACK);
-        fuenteHud.draw(juego.batch, "P1", xJ1 + 5, yJ1 + ALTO_PARADO + 15);
-        fuenteHud.draw(juego.batch, "P2", xJ2 + 5, yJ2 + ALTO_PARADO + 15);
-
-        // Obstáculos
-        for (Obstaculos o : obstaculos) {
-            // Si tu clase Obstaculos tiene render, mejor:
-            // o.render(juego.batch);
-            // Si no, lo dibujamos según type:
-            if (o.type == Obstaculos.CACTUS) {
-                juego.batch.draw(texturaCactus, o.x, o.y, o.width, o.height);
-            } else {
-                juego.batch.draw(texturaPtero, o.x, o.y, o.width, o.height);
-            }
+        for (int i = 0; i < cantidadJugadores; i++) {
+            int t = (idJugador[i] - 1) & (MAX_JUGADORES - 1);
+            fuenteHud.draw(juego.batch, ETIQUETAS[t], xJugador[i] + 5, yJugador[i] + ALTO_PARADO + 15);
         }
 
         // HUD
         float hudX = camara.position.x + camara.viewportWidth / 2 - 300;
         float hudY = camara.position.y + camara.viewportHeight / 2 - 20;
 
-        fuenteHud.draw(juego.batch, "PUNTAJE: " + puntaje, hudX, hudY);
-        fuenteHud.draw(juego.batch, "RECORD: " + record, hudX, hudY - 25);
+        textoPuntaje.setValor(simulacion.getPuntaje());
+        textoRecord.setValor(record);
+        textoPuntaje.dibujar(juego.batch, hudX, hudY);
+        textoRecord.dibujar(juego.batch, hudX, hudY - 25);
+
+        if (juego.mostrarDepuracion) {
+            textoLlamadas.setValor(llamadasDibujo);
+            textoLlamadas.dibujar(juego.batch, hudX, hudY - 50);
+        }
 
         if (finDelJuego) {
-            String texto = "GANA JUGADOR " + ganador;
             float x = camara.position.x - 350;
             float y = camara.position.y + 100;
 
-            fuenteTitulo.draw(juego.batch, texto, x, y);
+            if (ganador == 0) {
+                fuenteTitulo.draw(juego.batch, "EMPATE", x, y);
+            } else {
+                textoGanador.setValor(ganador);
+                textoGanador.dibujar(juego.batch, x, y);
+            }
             fuenteHud.draw(juego.batch, "Presiona M para volver al menu", x - 60, y - 40);
         }
     }
@@ -544,30 +799,22 @@ public class PantallaMultijugador implements Screen {
 
     @Override
     public void dispose() {
-        // Obstáculos
-        for (Obstaculos o : obstaculos) {
-            o.dispose();
-        }
-        obstaculos.clear();
+        descubridor.cancelar();
 
-        // Texturas
-        texturaSuelo.dispose();
-        texturaCactus.dispose();
-        texturaPtero.dispose();
+        // Sprites
+        juego.recursos.liberar(Recursos.SUELO);
+        juego.recursos.liberar(Recursos.CACTUS);
+        juego.recursos.liberar(Recursos.PTERO);
 
-        texturaDinoRun1.dispose();
-        texturaDinoRun2.dispose();
-        texturaDinoAgachado.dispose();
+        juego.recursos.liberar(Recursos.DINO_CORRER_1);
+        juego.recursos.liberar(Recursos.DINO_CORRER_2);
+        juego.recursos.liberar(Recursos.DINO_AGACHADO);
 
         // Sonidos
-        sonidoSalto.dispose();
-        sonidoGolpe.dispose();
-
-        // Fuentes
-        fuenteHud.dispose();
-        fuenteTitulo.dispose();
+        juego.recursos.liberar(Recursos.SALTO);
+        juego.recursos.liberar(Recursos.GOLPE);
 
-        // Si tu GameClient tiene cierre, sería ideal:
-        // cliente.cerrar();
+        // Socket e hilo del cliente (si llegó a conectarse)
+        if (cliente != null) cliente.cerrar();
     }
 }
@@ -0,0 +1,13 @@
+package com.dinochrome.game;
+
+import com.badlogic.gdx.Screen;
+
+/**
+ * Pantalla que LanzadorDelJuego crea una sola vez y vuelve a mostrar, en vez
+ * de crear otra en cada cambio. Se cierra (dispose) sólo al salir del juego.
+ */
+public interface PantallaReutilizable extends Screen {
+
+    /** Deja la pantalla como recién creada. Se llama cada vez que se vuelve a mostrar. */
+    void reset();
+}
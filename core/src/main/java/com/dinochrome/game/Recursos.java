@@ -0,0 +1,227 @@
+package com.dinochrome.game;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Sprites, sonidos y fuentes compartidos entre pantallas, sobre un AssetManager.
+ *
+ * Lo del juego se encola en precargar() al arrancar y se va cargando mientras
+ * se ve el menú: el AssetManager decodifica en su hilo y acá, en actualizar()
+ * (una vez por frame, desde LanzadorDelJuego), sólo se sube a la GPU lo que ya
+ * está listo. Lo precargado queda cargado todo el proceso: cada archivo se lee
+ * una sola vez y entrar a una pantalla no carga nada.
+ *
+ * Los sprites salen de un atlas (una sola textura: el SpriteBatch no corta el
+ * lote al pasar de uno a otro) que arma la tarea de Gradle empaquetarAtlas. Si
+ * el atlas no está (se corrió sin Gradle), cada sprite sale de su PNG suelto:
+ * anda igual, con más llamadas de dibujo.
+ *
+ * Las fuentes de font.ttf salen de CacheFuentes (generadas una vez, después
+ * leídas del disco) y se cargan de a una por frame cuando el AssetManager ya
+ * terminó. Son del juego entero: las pantallas las usan y no las liberan.
+ *
+ * Las pantallas piden con region()/sonido() y devuelven con liberar(). Si algo
+ * todavía no terminó de cargar, se espera a ese archivo solo. Lo que no está en
+ * la precarga se carga al pedirlo y se descarga con la última referencia.
+ *
+ * Lo crea y lo cierra LanzadorDelJuego. Sólo desde el hilo de render.
+ */
+public final class Recursos implements Disposable {
+
+    /** Lo genera empaquetarAtlas (build.gradle) a partir de los PNG sueltos. */
+    public static final String ATLAS = "atlas/juego.atlas";
+
+    // Sprites (nombre de la región en el atlas = nombre del PNG sin extensión)
+    public static final String CACTUS = "cactus";
+    public static final String PTERO = "ptero";
+    public static final String SUELO = "ground";
+    public static final String DINO_CORRER_1 = "dino_run1";
+    public static final String DINO_CORRER_2 = "dino_run2";
+    public static final String DINO_AGACHADO = "dino_duck";
+
+    // Sonidos
+    public static final String SALTO = "jump.wav";
+    public static final String GOLPE = "hit.wav";
+
+    // Fuentes (tamaño en px de font.ttf)
+    public static final int FUENTE_HUD = 14;
+    public static final int FUENTE_PUNTAJE = 20;
+    public static final int FUENTE_TITULO = 28;
+    public static final int FUENTE_FIN = 32;
+
+    private static final String TTF = "font.ttf";
+    private static final String CARACTERES = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789:!?. ";
+
+    private static final String[] SPRITES = {CACTUS, PTERO, SUELO, DINO_CORRER_1, DINO_CORRER_2, DINO_AGACHADO};
+    private static final String[] SONIDOS = {SALTO, GOLPE};
+    private static final int[] FUENTES = {FUENTE_HUD, FUENTE_PUNTAJE, FUENTE_TITULO, FUENTE_FIN};
+
+    private final AssetManager assets = new AssetManager();
+    private boolean usaAtlas;
+
+    // Referencias de las pantallas por archivo (la precarga no cuenta: la sostiene el AssetManager)
+    private final ObjectIntMap<String> referencias = new ObjectIntMap<>();
+
+    // Una región por sprite, armada la primera vez que se pide
+    private final ObjectMap<String, TextureRegion> regiones = new ObjectMap<>();
+
+    // Fuentes por tamaño; se crean en precargar() (hace falta Gdx.files)
+    private CacheFuentes cacheFuentes;
+    private final IntMap<BitmapFont> fuentes = new IntMap<>();
+
+    /** Encola todo lo del juego; se carga de a poco con actualizar(). */
+    public void precargar() {
+        usaAtlas = Gdx.files.internal(ATLAS).exists();
+        if (usaAtlas) {
+            assets.load(ATLAS, TextureAtlas.class);
+        } else {
+            for (String sprite : SPRITES) assets.load(sprite + ".png", Texture.class);
+        }
+        for (String ruta : SONIDOS) assets.load(ruta, Sound.class);
+
+        cacheFuentes = new CacheFuentes(Gdx.files.internal(TTF), CARACTERES, Color.BLACK);
+    }
+
+    /** Un poco de carga por frame. true cuando no queda nada pendiente. */
+    public boolean actualizar() {
+        if (!assets.update()) return false;
+
+        // Después de lo del AssetManager, una fuente por frame
+        for (int tamano : FUENTES) {
+            if (!fuentes.containsKey(tamano)) {
+                fuente(tamano);
+                break;
+            }
+        }
+        return isListo();
+    }
+
+    /** De 0 a 1, cuánto de lo encolado ya está cargado (mitad archivos, mitad fuentes). */
+    public float getProgreso() {
+        return (assets.getProgress() + (float) fuentesListas() / FUENTES.length) / 2f;
+    }
+
+    public boolean isListo() {
+        return assets.isFinished() && fuentesListas() == FUENTES.length;
+    }
+
+    // -------------------------
+    // Pedir / devolver
+    // -------------------------
+
+    /** El sprite con ese nombre (si falta, espera a que cargue). Devolverlo con liberar(). */
+    public TextureRegion region(String sprite) {
+        TextureRegion r = regiones.get(sprite);
+        if (usaAtlas) {
+            TextureAtlas atlas = obtener(ATLAS, TextureAtlas.class);
+            if (r == null) r = atlas.findRegion(sprite);
+        } else {
+            Texture t = obtener(sprite + ".png", Texture.class);
+            if (r == null) r = new TextureRegion(t);
+        }
+        regiones.put(sprite, r);
+        return r;
+    }
+
+    /** El sonido de esa ruta (si falta, espera a que cargue). Devolverlo con liberar(). */
+    public Sound sonido(String ruta) {
+        return obtener(ruta, Sound.class);
+    }
+
+    /** La fuente de ese tamaño (si falta, se carga ahora). Es compartida: no cambiarle la escala ni liberarla. */
+    public BitmapFont fuente(int tamano) {
+        BitmapFont f = fuentes.get(tamano);
+        if (f == null) {
+            f = cacheFuentes.cargar(tamano);
+            fuentes.put(tamano, f);
+        }
+        return f;
+    }
+
+    /** Suelta una referencia (de un sprite o un sonido); lo que no es de la precarga se descarga con la última. */
+    public void liberar(String nombre) {
+        String ruta = archivoDe(nombre);
+        int quedan = referencias.get(ruta, 0) - 1;
+        if (quedan > 0) {
+            referencias.put(ruta, quedan);
+            return;
+        }
+
+        referencias.remove(ruta, 0);
+        if (!esPrecarga(nombre) && assets.isLoaded(ruta)) assets.unload(ruta);
+    }
+
+    /** Archivos cargados ahora (para métricas). */
+    public int getCargadas() {
+        return assets.getLoadedAssets();
+    }
+
+    /** Referencias de las pantallas sin devolver, sumando todos los archivos (para pruebas). */
+    int getReferencias() {
+        int total = 0;
+        for (ObjectIntMap.Entry<String> e : referencias) total += e.value;
+        return total;
+    }
+
+    /** Al cerrar el juego: libera todo, tenga las referencias que tenga. */
+    @Override
+    public void dispose() {
+        assets.dispose();
+        referencias.clear();
+        regiones.clear();
+
+        for (BitmapFont f : fuentes.values()) f.dispose();
+        fuentes.clear();
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private <T> T obtener(String ruta, Class<T> tipo) {
+        if (!assets.isLoaded(ruta)) {
+            if (!assets.contains(ruta)) assets.load(ruta, tipo);
+            assets.finishLoadingAsset(ruta);
+        }
+        referencias.getAndIncrement(ruta, 0, 1);
+        return assets.get(ruta, tipo);
+    }
+
+    private int fuentesListas() {
+        int listas = 0;
+        for (int tamano : FUENTES) {
+            if (fuentes.containsKey(tamano)) listas++;
+        }
+        return listas;
+    }
+
+    private String archivoDe(String nombre) {
+        if (!esSprite(nombre)) return nombre;
+        return usaAtlas ? ATLAS : nombre + ".png";
+    }
+
+    private static boolean esSprite(String nombre) {
+        for (String s : SPRITES) {
+            if (s.equals(nombre)) return true;
+        }
+        return false;
+    }
+
+    private static boolean esPrecarga(String nombre) {
+        if (esSprite(nombre)) return true;
+        for (String s : SONIDOS) {
+            if (s.equals(nombre)) return true;
+        }
+        return false;
+    }
+}
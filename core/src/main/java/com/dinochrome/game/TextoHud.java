@@ -0,0 +1,52 @@
+package com.dinochrome.game;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+
+/**
+ * Un texto del HUD con un número al final ("PUNTAJE: 120").
+ *
+ * El texto se arma en un StringBuilder propio y se mide en un GlyphLayout
+ * propio, y las dos cosas se rehacen sólo cuando cambia el número. Cada frame
+ * se dibuja el layout tal cual: no se crean strings ni se vuelve a medir nada.
+ *
+ * Toma el color que tiene la fuente al armar el texto.
+ */
+final class TextoHud {
+
+    private final BitmapFont fuente;
+    private final int largoPrefijo;
+    private final StringBuilder texto;
+    private final GlyphLayout layout = new GlyphLayout();
+
+    private int valor;
+    private boolean armado = false;
+
+    TextoHud(BitmapFont fuente, String prefijo) {
+        this.fuente = fuente;
+        this.largoPrefijo = prefijo.length();
+        // Lugar para el prefijo y cualquier int: no crece nunca
+        this.texto = new StringBuilder(prefijo.length() + 11).append(prefijo);
+    }
+
+    /** Cambia el número; si es el mismo de antes no hace nada. */
+    void setValor(int valor) {
+        if (armado && valor == this.valor) return;
+
+        this.valor = valor;
+        texto.setLength(largoPrefijo);
+        texto.append(valor);
+        layout.setText(fuente, texto);
+        armado = true;
+    }
+
+    void dibujar(Batch batch, float x, float y) {
+        fuente.draw(batch, layout, x, y);
+    }
+
+    /** Ancho del texto armado, para poner otro a continuación. */
+    float getAncho() {
+        return layout.width;
+    }
+}
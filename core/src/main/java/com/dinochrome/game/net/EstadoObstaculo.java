@@ -1,10 +0,0 @@
-package com.dinochrome.game.net;
-
-public class EstadoObstaculo {
-    public int id;
-    public float x;
-    public float y;
-    public float width;
-    public float height;
-    public int type; // 0 = cactus, 1 = ptero
-}
@@ -0,0 +1,109 @@
+package com.dinochrome.game;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * libGDX sin ventana para las pruebas: el backend headless (archivos, audio
+ * mudo, preferencias, nativos) y un GL20 que acepta todo y no dibuja nada.
+ *
+ * Con ese GL se crean texturas, shaders y SpriteBatch como en el juego; los
+ * ids que devuelve son siempre 1 y los shaders "compilan" siempre. Las llamadas
+ * al GL sí crean objetos (es un Proxy): las pruebas de asignaciones no miden
+ * mientras el batch vacía el lote.
+ *
+ * El GL cuenta lo que se crea y se borra (texturas, buffers, shaders y
+ * programas): lo que queda vivo es lo que alguien no liberó con dispose().
+ *
+ * Las pruebas corren en su propio hilo, no en el del backend: el listener del
+ * backend no hace nada.
+ */
+final class GdxPrueba {
+
+    private static HeadlessApplication app;
+
+    // Creados menos borrados
+    private static final AtomicInteger texturas = new AtomicInteger();
+    private static final AtomicInteger otrosObjetosGl = new AtomicInteger();
+
+    private GdxPrueba() {
+    }
+
+    static synchronized void iniciar() {
+        if (app != null) return;
+
+        app = new HeadlessApplication(new ApplicationAdapter() {}, new HeadlessApplicationConfiguration());
+        Gdx.gl = Gdx.gl20 = glMudo();
+    }
+
+    /** Texturas del GL creadas y todavía no borradas. */
+    static int getTexturasVivas() {
+        return texturas.get();
+    }
+
+    /** Texturas, buffers, shaders y programas del GL creados y todavía no borrados. */
+    static int getObjetosGlVivos() {
+        return texturas.get() + otrosObjetosGl.get();
+    }
+
+    // Cuenta glGen*/glCreate* y glDelete* (los de a muchos traen la cantidad primero)
+    private static void contar(String nombre, Object[] args) {
+        switch (nombre) {
+            case "glGenTexture": texturas.incrementAndGet(); break;
+            case "glGenTextures": texturas.addAndGet((Integer) args[0]); break;
+            case "glDeleteTexture": texturas.decrementAndGet(); break;
+            case "glDeleteTextures": texturas.addAndGet(-(Integer) args[0]); break;
+
+            case "glGenBuffer":
+            case "glCreateShader":
+            case "glCreateProgram":
+                otrosObjetosGl.incrementAndGet();
+                break;
+            case "glGenBuffers": otrosObjetosGl.addAndGet((Integer) args[0]); break;
+            case "glDeleteBuffer":
+            case "glDeleteShader":
+            case "glDeleteProgram":
+                otrosObjetosGl.decrementAndGet();
+                break;
+            case "glDeleteBuffers": otrosObjetosGl.addAndGet(-(Integer) args[0]); break;
+            default: break;
+        }
+    }
+
+    private static GL20 glMudo() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] {GL20.class},
+            (proxy, metodo, args) -> {
+                String nombre = metodo.getName();
+
+                if (metodo.getDeclaringClass() == Object.class) {
+                    if (nombre.equals("equals")) return proxy == args[0];
+                    if (nombre.equals("hashCode")) return System.identityHashCode(proxy);
+                    return "GL20 de prueba";
+                }
+
+                contar(nombre, args);
+
+                // Sin esto SpriteBatch no arranca: pregunta si su shader compiló y enlazó
+                if ((nombre.equals("glGetShaderiv") || nombre.equals("glGetProgramiv")) && args[2] instanceof IntBuffer) {
+                    int consulta = (Integer) args[1];
+                    boolean ok = consulta == GL20.GL_COMPILE_STATUS || consulta == GL20.GL_LINK_STATUS;
+                    ((IntBuffer) args[2]).put(0, ok ? 1 : 0);
+                    return null;
+                }
+
+                Class<?> tipo = metodo.getReturnType();
+                if (tipo == int.class) return nombre.equals("glGetError") ? GL20.GL_NO_ERROR : 1;
+                if (tipo == boolean.class) return false;
+                if (tipo == float.class) return 0f;
+                if (tipo == String.class) return "";
+                return null;
+            });
+    }
+}
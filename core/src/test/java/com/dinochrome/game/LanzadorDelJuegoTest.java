@@ -0,0 +1,175 @@
+package com.dinochrome.game;
+
+import com.badlogic.gdx.Screen;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LanzadorDelJuegoTest {
+
+    private static final int CICLOS = 1000;
+
+    // El multijugador sale a buscar servidor (un hilo y un socket hasta que se
+    // cancela): se lo abre cada tanto, no en todos los ciclos
+    private static final int CADA_MULTIJUGADOR = 25;
+
+    // Ciclos antes de tomar la medida base del heap (JIT, cachés, clases cargadas)
+    private static final int CICLOS_CALENTAMIENTO = 50;
+
+    // Cuánto puede crecer el heap usado (después de un GC) entre la base y el
+    // final: 950 ciclos y 38 multijugadores, así que ~4 KB por ciclo
+    private static final long MARGEN_HEAP = 4L * 1024 * 1024;
+
+    // Lo que tarda en terminar una búsqueda cancelada o un transporte cerrado
+    private static final long ESPERA_HILOS_MS = 2_000;
+
+    private LanzadorDelJuego juego;
+
+    // Objetos del GL antes de crear el juego
+    private int texturasAntes;
+    private int objetosGlAntes;
+
+    @BeforeClass
+    public static void iniciarGdx() {
+        GdxPrueba.iniciar();
+    }
+
+    @Before
+    public void crear() {
+        texturasAntes = GdxPrueba.getTexturasVivas();
+        objetosGlAntes = GdxPrueba.getObjetosGlVivos();
+
+        juego = new LanzadorDelJuego();
+        juego.create();
+        while (!juego.recursos.isListo()) juego.recursos.actualizar();
+    }
+
+    @After
+    public void cerrar() {
+        if (juego != null) juego.dispose();
+    }
+
+    @Test
+    public void milCiclosReusanLasPantallasYDevuelvenLosRecursos() {
+        Screen menu = juego.getScreen();
+        assertTrue(menu instanceof PantallaMenu);
+
+        Screen partida = null;
+        Screen controles = null;
+        Screen multijugador = null;
+        int base = -1;
+        int texturasBase = -1;
+        long heapBase = -1;
+
+        for (int ciclo = 0; ciclo < CICLOS; ciclo++) {
+            juego.mostrarPartida();
+            Screen p = cambiar();
+            if (partida == null) partida = p;
+            assertSame("la partida se reusa", partida, p);
+
+            juego.mostrarControles();
+            Screen c = cambiar();
+            if (controles == null) controles = c;
+            assertSame("los controles se reusan", controles, c);
+
+            if (ciclo % CADA_MULTIJUGADOR == 0) {
+                juego.mostrarMultijugador();
+                Screen m = cambiar();
+                assertTrue(m instanceof PantallaMultijugador);
+                assertNotSame("el multijugador es nuevo cada vez", multijugador, m);
+                multijugador = m;
+            }
+
+            juego.mostrarMenu();
+            assertSame("el menú se reusa", menu, cambiar());
+
+            // Con las tres reutilizables creadas, lo que tienen pedido no cambia: el
+            // multijugador devolvió todo al cerrarse
+            if (base < 0) base = juego.recursos.getReferencias();
+            assertEquals("referencias en el ciclo " + ciclo, base, juego.recursos.getReferencias());
+
+            // Ni texturas nuevas en el GL, ni el hilo de búsqueda o de red del multijugador
+            if (texturasBase < 0) texturasBase = GdxPrueba.getTexturasVivas();
+            assertEquals("texturas en el ciclo " + ciclo, texturasBase, GdxPrueba.getTexturasVivas());
+            if (ciclo % CADA_MULTIJUGADOR == 0) esperarSinHilosDeRed(ciclo);
+
+            if (ciclo == CICLOS_CALENTAMIENTO) heapBase = heapUsado();
+        }
+
+        long crecimiento = heapUsado() - heapBase;
+        assertTrue("el heap creció " + crecimiento + " bytes", crecimiento <= MARGEN_HEAP);
+
+        juego.cerrarPantallas();
+        assertEquals("referencias con todas las pantallas cerradas", 0, juego.recursos.getReferencias());
+
+        // Al cerrar el juego no queda nada suyo en el GL
+        juego.dispose();
+        juego = null;
+        assertEquals("texturas al cerrar", texturasAntes, GdxPrueba.getTexturasVivas());
+        assertEquals("objetos del GL al cerrar", objetosGlAntes, GdxPrueba.getObjetosGlVivos());
+    }
+
+    @Test
+    public void laPedidaQueNoSeMostroTambienSeCierra() {
+        int antes = juego.recursos.getReferencias();
+
+        // Dos pedidos en el mismo frame: el primero nunca se muestra
+        juego.mostrarMultijugador();
+        juego.mostrarMenu();
+        cambiar();
+
+        assertEquals(antes, juego.recursos.getReferencias());
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+
+    // Un frame (ahí se hace el cambio pedido) y otro ya con la pantalla nueva
+    private Screen cambiar() {
+        juego.render();
+        juego.render();
+        return juego.getScreen();
+    }
+
+    // El multijugador ya se cerró: su búsqueda y su cliente terminan solos en un rato
+    private static void esperarSinHilosDeRed(int ciclo) {
+        long limite = System.currentTimeMillis() + ESPERA_HILOS_MS;
+        while (hilosDeRed() > 0 && System.currentTimeMillis() < limite) dormir(10);
+        assertEquals("hilos de red vivos después del ciclo " + ciclo, 0, hilosDeRed());
+    }
+
+    private static int hilosDeRed() {
+        int vivos = 0;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            String nombre = t.getName();
+            if (t.isAlive() && (nombre.equals("Descubridor") || nombre.equals("Cliente-UDP"))) vivos++;
+        }
+        return vivos;
+    }
+
+    // Heap ocupado después de juntar la basura (varias veces: un GC solo puede dejar algo)
+    private static long heapUsado() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            dormir(20);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void dormir(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.dinochrome.game;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.sun.management.ThreadMXBean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class TextoHudTest {
+
+    private static final int FRAMES = 10_000;
+
+    // Frames medidos por tramo: el lote no se llena, así el batch no se vacía
+    // (no llama al GL de prueba) mientras se mide
+    private static final int FRAMES_POR_TRAMO = 100;
+
+    // Lo que puede asignar la medición misma en los 10k frames; un objeto por frame serían cientos de KB
+    private static final long MAX_BYTES = 256;
+
+    private BitmapFont fuente;
+    private SpriteBatch batch;
+
+    private TextoHud puntaje;
+    private TextoHud record;
+    private TextoHud llamadas;
+
+    @BeforeClass
+    public static void iniciarGdx() {
+        GdxPrueba.iniciar();
+    }
+
+    @Before
+    public void crear() {
+        fuente = new BitmapFont();
+        batch = new SpriteBatch(8191);
+
+        puntaje = new TextoHud(fuente, "PUNTAJE: ");
+        record = new TextoHud(fuente, "RECORD: ");
+        llamadas = new TextoHud(fuente, "DRAW CALLS: ");
+    }
+
+    @After
+    public void cerrar() {
+        batch.dispose();
+        fuente.dispose();
+    }
+
+    @Test
+    public void armaElPrefijoConElValor() {
+        puntaje.setValor(120);
+
+        assertEquals(new GlyphLayout(fuente, "PUNTAJE: 120").width, puntaje.getAncho(), 0.001f);
+    }
+
+    @Test
+    public void cambiaSoloCuandoCambiaElValor() {
+        puntaje.setValor(7);
+        float antes = puntaje.getAncho();
+
+        puntaje.setValor(7);
+        assertEquals(antes, puntaje.getAncho(), 0f);
+
+        puntaje.setValor(77777);
+        assertEquals(new GlyphLayout(fuente, "PUNTAJE: 77777").width, puntaje.getAncho(), 0.001f);
+    }
+
+    @Test
+    public void diezMilFramesSinAsignar() {
+        ThreadMXBean mx = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(mx.isThreadAllocatedMemorySupported());
+        mx.setThreadAllocatedMemoryEnabled(true);
+        long hilo = Thread.currentThread().getId();
+
+        // Calentar: que crezcan los arreglos de los layouts y el caché de la fuente, y compile el JIT
+        medir(mx, hilo);
+
+        long bytes = medir(mx, hilo);
+        assertTrue("asignó " + bytes + " bytes en " + FRAMES + " frames", bytes <= MAX_BYTES);
+    }
+
+    // Los bytes que asignaron FRAMES frames del HUD, sin contar el vaciado del batch
+    private long medir(ThreadMXBean mx, long hilo) {
+        long total = 0;
+
+        for (int inicio = 0; inicio < FRAMES; inicio += FRAMES_POR_TRAMO) {
+            batch.begin();
+            long antes = mx.getThreadAllocatedBytes(hilo);
+
+            for (int f = inicio; f < inicio + FRAMES_POR_TRAMO; f++) {
+                // El puntaje sube cada tanto; el récord y las llamadas casi nunca cambian
+                puntaje.setValor(f / 6);
+                record.setValor(4321);
+                llamadas.setValor(f < FRAMES / 2 ? 2 : 3);
+
+                puntaje.dibujar(batch, 10, 230);
+                record.dibujar(batch, 10, 210);
+                llamadas.dibujar(batch, 10, 190);
+            }
+
+            total += mx.getThreadAllocatedBytes(hilo) - antes;
+            batch.end();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,183 @@
+package com.dinochrome.game.server;
+
+import com.dinochrome.game.net.CanalFiable;
+import com.dinochrome.game.net.PlayerState;
+import com.dinochrome.game.net.Protocolo;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * Prueba de carga de punta a punta en una sola máquina: levanta el servidor en
+ * el mismo proceso y lo llena de bots por UDP (loopback), tantos como haga falta
+ * para ocupar "salas" salas. Cada segundo imprime cuánto tarda el tick de todas
+ * las salas y si el servidor se atrasa.
+ *
+ * Uso: PruebaCarga [salas=1000] [segundos=30] [jugadoresPorSala=2] [hilos=núcleos]
+ *
+ * Los bots no saltan: chocan, reciben FIN, vuelven a dar listo y juegan otra.
+ * Mandan su estado a 30 Hz como un cliente real, y el control (JOIN, READY)
+ * por el canal confiable, igual que GameClient.
+ */
+public class PruebaCarga {
+
+    private static final long PERIODO_BOTS_NS = 1_000_000_000L / 30;
+    private static final long ESPERA_REVANCHA_NS = 1_000_000_000L;
+
+    private static final class Bot {
+        final DatagramChannel canal;
+        final PlayerState estado = new PlayerState();
+        final CanalFiable fiable = new CanalFiable();
+        int sala = 0;
+        boolean unido = false;
+        boolean listo = false;
+        boolean jugando = false;
+        long revancha = 0;
+        int secuencia = 0;
+
+        Bot() throws IOException {
+            canal = DatagramChannel.open();
+            canal.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            canal.configureBlocking(false);
+        }
+
+        int siguienteSecuencia() {
+            secuencia = (secuencia + 1) & 0xFFFF;
+            return secuencia;
+        }
+    }
+
+    private static long enviados = 0;
+    private static long recibidos = 0;
+
+    public static void main(String[] args) throws Exception {
+        int salas = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int segundos = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int jugadoresPorSala = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        ServidorJuego servidor = new ServidorJuego(0, 1234L, jugadoresPorSala, hilos);
+        servidor.iniciar();
+        InetSocketAddress destino = new InetSocketAddress(InetAddress.getLoopbackAddress(), servidor.getPuerto());
+
+        Bot[] bots = new Bot[salas * jugadoresPorSala];
+        for (int i = 0; i < bots.length; i++) bots[i] = new Bot();
+
+        System.out.println("Servidor en " + destino + " con " + servidor.getHilos() + " hilos, "
+            + bots.length + " bots para " + salas + " salas");
+
+        ByteBuffer envio = ByteBuffer.allocateDirect(Protocolo.TAM_MAX);
+        ByteBuffer recepcion = ByteBuffer.allocateDirect(2048);
+
+        long inicio = System.nanoTime();
+        long fin = inicio + segundos * 1_000_000_000L;
+        long proximoReporte = inicio + 1_000_000_000L;
+        long proximoCiclo = inicio;
+
+        while (System.nanoTime() - fin < 0) {
+            long ahora = System.nanoTime();
+
+            for (Bot b : bots) {
+                recibir(b, recepcion, ahora);
+                enviar(b, envio, destino, ahora);
+            }
+
+            if (ahora - proximoReporte >= 0) {
+                reportar(servidor, (ahora - inicio) / 1_000_000_000L);
+                proximoReporte += 1_000_000_000L;
+            }
+
+            proximoCiclo += PERIODO_BOTS_NS;
+            long espera = proximoCiclo - System.nanoTime();
+            if (espera > 0) {
+                Thread.sleep(espera / 1_000_000L, (int) (espera % 1_000_000L));
+            } else {
+                proximoCiclo = System.nanoTime();
+            }
+        }
+
+        System.out.printf("FIN: tick promedio %.3f ms, máximo %.3f ms, atrasados %d de %d%n",
+            servidor.getPromedioTickMillis(), servidor.getMaximoTickMillis(),
+            servidor.getTicksAtrasados(), servidor.getTicks());
+
+        servidor.detener();
+        for (Bot b : bots) b.canal.close();
+    }
+
+    private static void recibir(Bot b, ByteBuffer recepcion, long ahora) throws IOException {
+        while (true) {
+            recepcion.clear();
+            if (b.canal.receive(recepcion) == null) return;
+            recepcion.flip();
+            recibidos++;
+
+            b.fiable.procesarAcks(recepcion, ahora);
+            if (!Protocolo.esFiable(Protocolo.leerTipo(recepcion))) continue;
+
+            b.fiable.recibir(recepcion);
+            for (ByteBuffer m = b.fiable.entregar(); m != null; m = b.fiable.entregar()) {
+                procesarControl(b, m, ahora);
+            }
+        }
+    }
+
+    private static void procesarControl(Bot b, ByteBuffer m, long ahora) {
+        switch (Protocolo.leerTipo(m)) {
+            case Protocolo.ASSIGN:
+                b.estado.playerId = Protocolo.leerByte(m);
+                b.sala = Protocolo.leerSalaAsignacion(m);
+                b.estado.x = 80f + (b.estado.playerId - 1) * 60f;
+                b.estado.y = 40f;
+                break;
+            case Protocolo.START:
+                b.jugando = true;
+                break;
+            case Protocolo.FIN:
+                b.jugando = false;
+                b.listo = false;
+                b.revancha = ahora + ESPERA_REVANCHA_NS;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void enviar(Bot b, ByteBuffer envio, InetSocketAddress destino, long ahora) throws IOException {
+        // Control sin confirmar: sale de nuevo cuando vence su timeout
+        for (ByteBuffer r = b.fiable.vencido(ahora); r != null; r = b.fiable.vencido(ahora)) {
+            b.canal.send(r, destino);
+            enviados++;
+        }
+
+        if (!b.unido) {
+            Protocolo.escribirUnion(envio, b.siguienteSecuencia(), 0);
+            b.fiable.registrar(envio, ahora);
+            b.unido = true;
+        } else if (b.sala == 0) {
+            return;
+        } else if (!b.listo) {
+            if (ahora - b.revancha < 0) return;
+            Protocolo.escribirControl(envio, Protocolo.READY, b.siguienteSecuencia());
+            b.fiable.registrar(envio, ahora);
+            b.listo = true;
+        } else if (b.jugando) {
+            Protocolo.escribirEstado(envio, b.siguienteSecuencia(), b.estado);
+        } else {
+            Protocolo.escribirControl(envio, Protocolo.ALIVE, b.siguienteSecuencia());
+        }
+
+        b.fiable.sellar(envio);
+        b.canal.send(envio, destino);
+        enviados++;
+    }
+
+    private static void reportar(ServidorJuego s, long segundo) {
+        System.out.printf("[%3ds] salas %d (jugando %d), jugadores %d | tick %.3f ms (máx %.3f) | atrasados %d | fallidas %d | descartados %d | env %d rec %d%n",
+            segundo, s.getSalasActivas(), s.getSalasEnPartida(), s.getJugadores(),
+            s.getPromedioTickMillis(), s.getMaximoTickMillis(), s.getTicksAtrasados(),
+            s.getSalasFallidas(), s.getPaquetesDescartados(), enviados, recibidos);
+    }
+}
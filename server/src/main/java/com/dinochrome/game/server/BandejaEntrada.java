@@ -0,0 +1,83 @@
+package com.dinochrome.game.server;
+
+import com.dinochrome.game.net.Protocolo;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Datagramas que esperan el próximo tick de una sala.
+ *
+ * Un productor (el hilo de recepción) y un consumidor (el worker que corre el
+ * tick de la sala; puede cambiar de un tick a otro, pero nunca hay dos a la vez).
+ * Misma idea que ColaEventos: casilleros preasignados, sin locks ni objetos nuevos.
+ */
+final class BandejaEntrada {
+
+    static final class Paquete {
+        final ByteBuffer datos = ByteBuffer.allocate(Protocolo.TAM_MAX);
+        SocketAddress origen;
+        long recibidoNanos;
+    }
+
+    private final Paquete[] casilleros;
+    private final int mascara;
+
+    private final AtomicLong cabeza = new AtomicLong();
+    private final AtomicLong cola = new AtomicLong();
+
+    private volatile long desbordes = 0;
+
+    /** capacidad se redondea a la potencia de 2 siguiente. */
+    BandejaEntrada(int capacidad) {
+        int tam = Integer.highestOneBit(Math.max(2, capacidad) - 1) << 1;
+        casilleros = new Paquete[tam];
+        for (int i = 0; i < tam; i++) casilleros[i] = new Paquete();
+        mascara = tam - 1;
+    }
+
+    // -------------------------
+    // Productor (hilo de recepción)
+    // -------------------------
+
+    /** Copia el datagrama. Si no entra (bandeja llena o paquete muy largo) se descarta. */
+    boolean ofrecer(ByteBuffer datos, SocketAddress origen, long ahora) {
+        long t = cola.get();
+        if (t - cabeza.get() >= casilleros.length || datos.remaining() > Protocolo.TAM_MAX) {
+            desbordes++;
+            return false;
+        }
+
+        Paquete p = casilleros[(int) t & mascara];
+        p.datos.clear();
+        p.datos.put(datos);
+        p.datos.flip();
+        p.origen = origen;
+        p.recibidoNanos = ahora;
+
+        cola.lazySet(t + 1);
+        return true;
+    }
+
+    // -------------------------
+    // Consumidor (tick de la sala)
+    // -------------------------
+
+    /** Próximo paquete, o null si no hay. Llamar a liberar() después de usarlo. */
+    Paquete siguiente() {
+        long h = cabeza.get();
+        if (h == cola.get()) return null;
+        return casilleros[(int) h & mascara];
+    }
+
+    void liberar() {
+        Paquete p = casilleros[(int) cabeza.get() & mascara];
+        p.origen = null;
+        cabeza.lazySet(cabeza.get() + 1);
+    }
+
+    long getDesbordes() {
+        return desbordes;
+    }
+}
@@ -0,0 +1,95 @@
+package com.dinochrome.game.server;
+
+import com.dinochrome.game.net.CanalFiable;
+import com.dinochrome.game.net.CompresorEstado;
+import com.dinochrome.game.net.PlayerState;
+import com.dinochrome.game.sim.EstadoDino;
+
+import java.net.SocketAddress;
+
+/**
+ * Lo que el servidor sabe de cada cliente conectado.
+ *
+ * Sólo lo toca el hilo del servidor: no hace falta sincronizar nada.
+ */
+final class ClienteRemoto {
+
+    final SocketAddress direccion;
+    final int id;
+
+    // Protocolo que habló en el JOIN: se le contesta en el mismo
+    final boolean binario;
+
+    boolean listo = false;
+    long ultimoRecibido;
+    private int secuenciaEnvio = 0;
+
+    // Control (ASSIGN, COUNT, START, FIN) confiable y en orden; sólo clientes binarios
+    final CanalFiable fiable = new CanalFiable();
+
+    // No confirma el control y ya no hay dónde guardarlo: se lo saca en el próximo tick
+    boolean saturado = false;
+
+    // Último estado que reportó (x, y, agachado): se reenvía a los demás para dibujarlo
+    final PlayerState reportado = new PlayerState();
+
+    // Estado autoritativo a partir de sus entradas (sólo clientes binarios)
+    final EstadoDino dino = new EstadoDino();
+    int ultimaEntrada = 0;
+    boolean correccionPendiente = false;
+
+    boolean vivo = true;
+
+    // Dónde se lo probó contra los obstáculos el tick anterior: el choque se barre desde ahí
+    float xChoque;
+    float yChoque;
+
+    // STATE_DELTA hacia este cliente: un compresor por jugador de origen,
+    // cada uno con su propia base confirmada
+    final CompresorEstado[] compresores;
+
+    ClienteRemoto(SocketAddress direccion, int id, boolean binario, int maxIds, long ahora) {
+        this.direccion = direccion;
+        this.id = id;
+        this.binario = binario;
+        this.ultimoRecibido = ahora;
+
+        compresores = new CompresorEstado[maxIds + 1];
+        for (int i = 1; i <= maxIds; i++) compresores[i] = new CompresorEstado();
+
+        reportado.playerId = id;
+        reiniciarPartida();
+    }
+
+    /** Vuelve al estado de arranque de partida (no toca la conexión ni ultimaEntrada). */
+    void reiniciarPartida() {
+        vivo = true;
+        dino.reiniciar();
+        correccionPendiente = false;
+
+        reportado.x = Partida.xInicial(id);
+        reportado.y = dino.y;
+        reportado.ducking = false;
+
+        xChoque = reportado.x;
+        yChoque = dino.y;
+    }
+
+    /**
+     * Altura para la colisión. Al binario sólo se le cree lo que simula el
+     * servidor con sus entradas (sin INPUT no salta); al de texto, que no
+     * manda entradas, lo que reporta.
+     */
+    float getY() {
+        return binario ? dino.y : reportado.y;
+    }
+
+    boolean isAgachado() {
+        return binario ? dino.agachado : reportado.ducking;
+    }
+
+    int siguienteSecuencia() {
+        secuenciaEnvio = (secuenciaEnvio + 1) & 0xFFFF;
+        return secuenciaEnvio;
+    }
+}
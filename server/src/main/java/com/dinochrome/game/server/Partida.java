@@ -0,0 +1,96 @@
+package com.dinochrome.game.server;
+
+import com.dinochrome.game.net.EstadoObstaculo;
+import com.dinochrome.game.sim.AlmacenObstaculos;
+import com.dinochrome.game.sim.Simulacion;
+
+import java.util.Random;
+
+/**
+ * Una partida del lado del servidor: los obstáculos los genera y mueve una
+ * Simulacion (la misma que usa el juego de un jugador, en el mismo orden:
+ * aparecen y después se mueven), y acá se agrega lo que es de red y de varios
+ * jugadores: el anuncio de cada obstáculo y los choques de cada dino.
+ *
+ * No sabe nada de red: Sala le pasa los ticks y anuncia lo que pasa.
+ */
+final class Partida {
+
+    // Hitbox del dino
+    static final float ANCHO_HITBOX = Simulacion.ANCHO_HITBOX;
+    static final float ALTO_PARADO = Simulacion.ALTO_PARADO;
+    static final float ALTO_AGACHADO = Simulacion.ALTO_AGACHADO;
+
+    // Una semilla nueva por partida: no se repiten los obstáculos de la anterior
+    private final Random semillas;
+
+    // Genera y mueve los obstáculos; los dinos van por Sala
+    private final Simulacion simulacion = new Simulacion(0L, true, false);
+    final AlmacenObstaculos obstaculos = simulacion.obstaculos;
+
+    // El que apareció en el último avanzar(), para anunciarlo (se reusa)
+    private final EstadoObstaculo nuevo = new EstadoObstaculo();
+    // Cuánto se corrieron los obstáculos en el último avanzar() (para el choque barrido)
+    private float avance;
+
+    Partida(long semilla) {
+        semillas = new Random(semilla);
+        reiniciar();
+    }
+
+    /** x de arranque de cada jugador: 80, 140, 200... */
+    static float xInicial(int id) {
+        return 80f + (id - 1) * 60f;
+    }
+
+    void reiniciar() {
+        simulacion.reiniciar(semillas.nextLong());
+        avance = 0f;
+    }
+
+    float getVelocidad() {
+        return simulacion.getVelocidad();
+    }
+
+    /**
+     * Un paso de Simulacion.PASO (un tick). Devuelve el obstáculo que apareció
+     * en este paso (para anunciarlo; vale hasta el próximo avanzar), o null.
+     *
+     * El anuncio lleva dónde quedó al terminar el tick y el número de tick
+     * (desde el START): los clientes lo corren lo que avanzó desde entonces.
+     */
+    EstadoObstaculo avanzar() {
+        double antes = simulacion.getDistancia();
+        simulacion.paso();
+        avance = (float) (simulacion.getDistancia() - antes);
+
+        int i = simulacion.getGenerado();
+        if (i < 0) return null;
+
+        EstadoObstaculo o = nuevo;
+        o.id = obstaculos.id[i];
+        o.tick = (int) simulacion.getPasos();
+        o.x = obstaculos.x[i];
+        o.y = obstaculos.y[i];
+        o.width = obstaculos.ancho[i];
+        o.height = obstaculos.alto[i];
+        o.type = obstaculos.tipo[i];
+        return o;
+    }
+
+    /**
+     * true si el dino, yendo de (xAntes, yAntes) en el tick anterior a (x, y)
+     * ahora, tocó algún obstáculo en el camino (barrido con lo que ellos
+     * avanzaron en el último avanzar()).
+     *
+     * retroceso: cuánto más a la derecha estaban los obstáculos cuando el
+     * cliente vivió esa posición (su atraso por la velocidad). En vez de volver
+     * atrás los obstáculos se corre el dino a la izquierda: es lo mismo.
+     */
+    boolean choca(float xAntes, float yAntes, float x, float y, boolean agachado, float retroceso) {
+        float alto = agachado ? ALTO_AGACHADO : ALTO_PARADO;
+        float dx = (x - xAntes) + avance;
+        float x1 = x - retroceso;
+        return obstaculos.impactoBarrido(x1, y, x1 + ANCHO_HITBOX, y + alto, dx, y - yAntes) >= 0f;
+    }
+}
@@ -0,0 +1,230 @@
+package com.dinochrome.game.server;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Corre el tick de todas las salas a frecuencia fija sobre un ForkJoinPool.
+ *
+ * Cada tick parte la lista de salas por la mitad hasta llegar a lotes chicos;
+ * los workers que terminan antes les roban lotes a los demás, así una sala
+ * cara (muchos jugadores, muchos paquetes) no frena a las otras.
+ * El hilo del planificador espera a que termine el tick entero antes del
+ * siguiente: ninguna sala corre dos veces a la vez.
+ */
+final class PlanificadorSalas {
+
+    // Salas por lote antes de dejar de partir (menos = más robo, más overhead)
+    private static final int SALAS_POR_LOTE = 16;
+
+    private final long periodoNanos;
+    private final ForkJoinPool pool;
+
+    // Salas nuevas que crea el hilo de recepción; el planificador las suma al empezar cada tick
+    private final ConcurrentLinkedQueue<Sala> nuevas = new ConcurrentLinkedQueue<>();
+
+    // Sólo las toca el hilo del planificador
+    private final ArrayList<Sala> salas = new ArrayList<>();
+    private Sala[] lote = new Sala[0];
+
+    private Thread hilo;
+    private volatile boolean corriendo = false;
+
+    // Métricas (las escribe el planificador, las lee cualquiera)
+    private volatile long ticks = 0;
+    private volatile long ticksAtrasados = 0;
+    private volatile long ultimoTickNanos = 0;
+    private volatile long maximoTickNanos = 0;
+    private volatile double promedioTickNanos = 0;
+    private volatile int salasActivas = 0;
+    private volatile int salasEnPartida = 0;
+    private volatile int jugadores = 0;
+
+    // Salas cerradas porque su tick tiró una excepción (la suman los workers)
+    private final AtomicLong salasFallidas = new AtomicLong();
+
+    PlanificadorSalas(int tickHz, int hilos) {
+        this.periodoNanos = 1_000_000_000L / tickHz;
+        this.pool = new ForkJoinPool(hilos);
+    }
+
+    void agregar(Sala sala) {
+        nuevas.offer(sala);
+    }
+
+    void iniciar() {
+        corriendo = true;
+        hilo = new Thread(this::loop, "Planificador-Salas");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    void detener() {
+        corriendo = false;
+        LockSupport.unpark(hilo);
+        try {
+            hilo.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdown();
+    }
+
+    // -------------------------
+    // Loop
+    // -------------------------
+    private void loop() {
+        long proximoTick = System.nanoTime();
+
+        while (corriendo) {
+            long ahora = System.nanoTime();
+            if (proximoTick - ahora > 0) {
+                LockSupport.parkNanos(proximoTick - ahora);
+                continue;
+            }
+
+            actualizarLista();
+            pool.invoke(new TickSalas(this, lote, 0, salas.size(), ahora));
+
+            long duracion = System.nanoTime() - ahora;
+            registrar(duracion);
+
+            // Si el tick tardó más que el período no se acumulan atrasos: se sigue desde ahora
+            proximoTick += periodoNanos;
+            if (System.nanoTime() - proximoTick >= 0) {
+                ticksAtrasados++;
+                proximoTick = System.nanoTime() + periodoNanos;
+            }
+        }
+    }
+
+    private void actualizarLista() {
+        for (Sala s = nuevas.poll(); s != null; s = nuevas.poll()) salas.add(s);
+
+        int enPartida = 0;
+        int conectados = 0;
+        for (int i = salas.size() - 1; i >= 0; i--) {
+            Sala s = salas.get(i);
+            if (s.cerrada) {
+                // swap-remove: el orden de las salas no importa
+                salas.set(i, salas.get(salas.size() - 1));
+                salas.remove(salas.size() - 1);
+                continue;
+            }
+            if (s.enPartida) enPartida++;
+            conectados += s.getConectados();
+        }
+
+        if (lote.length < salas.size()) lote = new Sala[Math.max(16, salas.size() * 2)];
+        salas.toArray(lote);
+
+        salasActivas = salas.size();
+        salasEnPartida = enPartida;
+        jugadores = conectados;
+    }
+
+    private void registrar(long duracion) {
+        ticks++;
+        ultimoTickNanos = duracion;
+        if (duracion > maximoTickNanos) maximoTickNanos = duracion;
+        // Promedio móvil exponencial, ~1 s de memoria a 60 Hz
+        promedioTickNanos += (duracion - promedioTickNanos) * (1.0 / 60);
+    }
+
+    // Una sala rota no tiene que tirar el tick de las demás: se cuenta, se cierra
+    // y suelta a sus clientes. Sólo se loguea la primera, para no inundar la salida
+    private void fallo(Sala sala, RuntimeException e) {
+        if (salasFallidas.getAndIncrement() == 0) {
+            System.err.println("Falló el tick de la sala " + sala.id + "; se cierra");
+            e.printStackTrace();
+        }
+        sala.cerrarPorFalla();
+    }
+
+    // -------------------------
+    // Tarea con robo de trabajo
+    // -------------------------
+    private static final class TickSalas extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PlanificadorSalas planificador;
+        private final Sala[] salas;
+        private final int desde;
+        private final int hasta;
+        private final long ahora;
+
+        TickSalas(PlanificadorSalas planificador, Sala[] salas, int desde, int hasta, long ahora) {
+            this.planificador = planificador;
+            this.salas = salas;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.ahora = ahora;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde <= SALAS_POR_LOTE) {
+                for (int i = desde; i < hasta; i++) {
+                    try {
+                        salas[i].tick(ahora);
+                    } catch (RuntimeException e) {
+                        planificador.fallo(salas[i], e);
+                    }
+                }
+                return;
+            }
+
+            int medio = (desde + hasta) >>> 1;
+            invokeAll(new TickSalas(planificador, salas, desde, medio, ahora),
+                new TickSalas(planificador, salas, medio, hasta, ahora));
+        }
+    }
+
+    // -------------------------
+    // Métricas
+    // -------------------------
+    long getTicks() {
+        return ticks;
+    }
+
+    long getTicksAtrasados() {
+        return ticksAtrasados;
+    }
+
+    long getUltimoTickNanos() {
+        return ultimoTickNanos;
+    }
+
+    long getMaximoTickNanos() {
+        return maximoTickNanos;
+    }
+
+    double getPromedioTickNanos() {
+        return promedioTickNanos;
+    }
+
+    int getSalasActivas() {
+        return salasActivas;
+    }
+
+    int getSalasEnPartida() {
+        return salasEnPartida;
+    }
+
+    int getJugadores() {
+        return jugadores;
+    }
+
+    /** Salas cerradas porque su tick tiró una excepción. */
+    long getSalasFallidas() {
+        return salasFallidas.get();
+    }
+
+    int getHilos() {
+        return pool.getParallelism();
+    }
+}
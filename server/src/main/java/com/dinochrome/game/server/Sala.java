@@ -0,0 +1,642 @@
+package com.dinochrome.game.server;
+
+import com.dinochrome.game.net.Correccion;
+import com.dinochrome.game.net.DescompresorEstado;
+import com.dinochrome.game.net.EstadoObstaculo;
+import com.dinochrome.game.net.PlayerState;
+import com.dinochrome.game.net.Protocolo;
+import com.dinochrome.game.sim.FisicaDino;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+
+/**
+ * Una partida con su lobby: clientes, obstáculos, choques y reenvío de estados.
+ *
+ * El hilo de recepción deja los datagramas en la bandeja y el planificador
+ * corre tick() en algún worker del pool; una sala nunca corre en dos hilos a
+ * la vez, así que adentro no se sincroniza nada. Lo que el hilo de recepción
+ * tiene que saber (quién se fue) vuelve por la cola de bajas.
+ */
+final class Sala {
+
+    // Un tick es un paso de la simulación (Simulacion.PASO = 1 / TICK_HZ)
+    private static final long PERIODO_TICK_NS = 1_000_000_000L / ServidorJuego.TICK_HZ;
+
+    private static final long TIMEOUT_CLIENTE_NS = 5_000_000_000L;
+
+    // Una entrada con delta mayor a esto se recorta (cliente trabado o tramposo)
+    private static final float DELTA_ENTRADA_MAX = 0.1f;
+
+    // Atraso máximo que se le compensa a un cliente al adjudicar choques (más
+    // lag no le corre los obstáculos más lejos: no se gana nada con retrasarse)
+    private static final float ATRASO_MAXIMO = 0.15f;
+
+    private static final int CAPACIDAD_BANDEJA = 32;
+
+    /** Un cliente que dejó la sala (o que nunca entró): el servidor lo borra del directorio. */
+    static final class Baja {
+        final SocketAddress direccion;
+        final Sala sala;
+
+        Baja(SocketAddress direccion, Sala sala) {
+            this.direccion = direccion;
+            this.sala = sala;
+        }
+    }
+
+    final int id;
+    final int capacidad;
+    final BandejaEntrada bandeja = new BandejaEntrada(CAPACIDAD_BANDEJA);
+
+    private final DatagramChannel canal;
+    private final Queue<Baja> bajas;
+    private final Partida partida;
+
+    // Sólo los toca el hilo de recepción
+    int reservas = 0;
+
+    // Los lee el hilo de recepción para elegir sala y el planificador para soltarla
+    volatile boolean enPartida = false;
+    volatile boolean cerrada = false;
+
+    private final ByteBuffer bufferEnvio = ByteBuffer.allocateDirect(Protocolo.TAM_MAX);
+
+    // Clientes por id (1..capacidad); null = libre
+    private final ClienteRemoto[] clientes;
+    private int conectados = 0;
+
+    // STATE_DELTA que llegan de los clientes, por id de jugador
+    private final DescompresorEstado descompresor = new DescompresorEstado();
+    private final PlayerState estadoLeido = new PlayerState();
+    private final Correccion correccion = new Correccion();
+
+    // Reloj del tick en curso (el START lo usa para fijar el tick 0)
+    private long ahoraTick;
+
+    Sala(int id, int capacidad, long semilla, DatagramChannel canal, Queue<Baja> bajas) {
+        this.id = id;
+        this.capacidad = capacidad;
+        this.canal = canal;
+        this.bajas = bajas;
+        this.partida = new Partida(semilla);
+        this.clientes = new ClienteRemoto[capacidad + 1];
+    }
+
+    int getConectados() {
+        return conectados;
+    }
+
+    /**
+     * El tick tiró una excepción: la sala no vuelve a correr. Se les da de baja
+     * a todos sus clientes, y a quien haya quedado en la bandeja, para que el
+     * servidor los olvide y puedan volver a unirse a otra.
+     */
+    void cerrarPorFalla() {
+        cerrada = true;
+        enPartida = false;
+
+        for (int id = 1; id <= capacidad; id++) {
+            ClienteRemoto c = clientes[id];
+            if (c == null) continue;
+            clientes[id] = null;
+            bajas.offer(new Baja(c.direccion, this));
+        }
+        conectados = 0;
+
+        for (BandejaEntrada.Paquete p = bandeja.siguiente(); p != null; p = bandeja.siguiente()) {
+            bajas.offer(new Baja(p.origen, this));
+            bandeja.liberar();
+        }
+    }
+
+    /** Un paso fijo: procesa lo que llegó desde el tick anterior y avanza la partida. */
+    void tick(long ahora) {
+        ahoraTick = ahora;
+
+        for (BandejaEntrada.Paquete p = bandeja.siguiente(); p != null; p = bandeja.siguiente()) {
+            recibir(p.datos, p.origen, p.recibidoNanos);
+            bandeja.liberar();
+        }
+
+        descartarInactivos(ahora);
+
+        if (enPartida) {
+            EstadoObstaculo nuevo = partida.avanzar();
+            if (nuevo != null) anunciarObstaculo(nuevo);
+            adjudicarChoques();
+        }
+
+        confirmarEstadosRecibidos();
+        enviarCorrecciones();
+        mantenerControl(ahora);
+    }
+
+    // -------------------------
+    // Recepción
+    // -------------------------
+    private void recibir(ByteBuffer datos, SocketAddress origen, long ahora) {
+        ClienteRemoto c = buscarCliente(origen);
+        if (c != null) c.ultimoRecibido = ahora;
+
+        if (Protocolo.esBinario(datos)) {
+            procesarBinario(datos, origen, c, ahora);
+            return;
+        }
+
+        byte[] bytes = new byte[datos.remaining()];
+        datos.get(bytes);
+        procesarTexto(new String(bytes, StandardCharsets.UTF_8).trim(), origen, c, ahora);
+    }
+
+    private void procesarBinario(ByteBuffer datos, SocketAddress origen, ClienteRemoto c, long ahora) {
+        int tipo = Protocolo.leerTipo(datos);
+        if (tipo < 0) return;
+
+        // Cliente nuevo: se da de alta con su JOIN; la bienvenida sale cuando el canal lo entrega
+        if (c == null) {
+            if (tipo != Protocolo.JOIN) return;
+            c = alta(origen, true, ahora);
+            if (c == null) return;
+        }
+
+        c.fiable.procesarAcks(datos, ahora);
+
+        if (Protocolo.esFiable(tipo)) {
+            c.fiable.recibir(datos);
+            for (ByteBuffer m = c.fiable.entregar(); m != null; m = c.fiable.entregar()) {
+                procesarControl(c, m);
+            }
+            return;
+        }
+
+        switch (tipo) {
+            case Protocolo.STATE:
+                if (Protocolo.leerByte(datos) == c.id && Protocolo.leerEstado(datos, estadoLeido)) {
+                    recibirEstado(c, estadoLeido);
+                }
+                break;
+            case Protocolo.STATE_DELTA:
+                if (Protocolo.leerByte(datos) == c.id && descompresor.leer(datos, estadoLeido)) {
+                    recibirEstado(c, estadoLeido);
+                }
+                break;
+            case Protocolo.ACK: {
+                // El cliente confirma un STATE_DELTA que le mandamos sobre el jugador "origen"
+                int idOrigen = Protocolo.leerByte(datos);
+                int confirmada = Protocolo.leerAck(datos);
+                if (confirmada >= 0 && idOrigen >= 1 && idOrigen <= capacidad) {
+                    c.compresores[idOrigen].confirmar(confirmada);
+                }
+                break;
+            }
+            case Protocolo.INPUT:
+                if (Protocolo.leerByte(datos) == c.id) simularEntradas(c, datos);
+                break;
+            case Protocolo.PING:
+                // t1 = cuando llegó al hilo de recepción: la espera en la bandeja no cuenta como red
+                if (datos.remaining() >= Protocolo.TAM_PING) contestarPing(c, Protocolo.leerReloj(datos, 0), ahora);
+                break;
+            default:
+                // ALIVE: alcanza con haber actualizado ultimoRecibido
+                break;
+        }
+    }
+
+    // Control del cliente, ya en orden y sin duplicados
+    private void procesarControl(ClienteRemoto c, ByteBuffer m) {
+        switch (Protocolo.leerTipo(m)) {
+            case Protocolo.JOIN:
+                darBienvenida(c);
+                break;
+            case Protocolo.READY:
+                marcarListo(c);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void procesarTexto(String msg, SocketAddress origen, ClienteRemoto c, long ahora) {
+        if (msg.equals("JOIN") || msg.startsWith("JOIN;")) {
+            unirTexto(origen, c, ahora);
+            return;
+        }
+        if (c == null) return;
+
+        if (msg.equals("READY")) {
+            marcarListo(c);
+            return;
+        }
+
+        if (msg.startsWith("STATE;")) {
+            try {
+                estadoLeido.playerId = Integer.parseInt(leerValor(msg, "id"));
+                estadoLeido.x = Float.parseFloat(leerValor(msg, "x"));
+                estadoLeido.y = Float.parseFloat(leerValor(msg, "y"));
+                estadoLeido.ducking = "1".equals(leerValor(msg, "duck"));
+            } catch (RuntimeException e) {
+                return;
+            }
+            if (estadoLeido.playerId == c.id) recibirEstado(c, estadoLeido);
+        }
+    }
+
+    // -------------------------
+    // Lobby
+    // -------------------------
+    // Texto: sin canal confiable, el cliente repite el JOIN hasta ver su ASSIGN
+    private void unirTexto(SocketAddress origen, ClienteRemoto existente, long ahora) {
+        // JOIN repetido (se perdió el ASSIGN): se le vuelve a mandar su id
+        if (existente != null) {
+            enviarAsignacion(existente);
+            enviarConteo(existente);
+            return;
+        }
+
+        ClienteRemoto c = alta(origen, false, ahora);
+        if (c != null) darBienvenida(c);
+    }
+
+    /** Le da un lugar en la sala; null (y baja al servidor) si está llena o ya jugando. */
+    private ClienteRemoto alta(SocketAddress origen, boolean binario, long ahora) {
+        // Llena o ya jugando (se cruzó con otro JOIN): que el servidor lo olvide
+        int id = idLibre();
+        if (id == 0 || enPartida) {
+            bajas.offer(new Baja(origen, this));
+            return null;
+        }
+
+        ClienteRemoto c = new ClienteRemoto(origen, id, binario, capacidad, ahora);
+        clientes[id] = c;
+        descompresor.reiniciar(id);
+        conectados++;
+        return c;
+    }
+
+    private void darBienvenida(ClienteRemoto c) {
+        enviarAsignacion(c);
+        anunciarConteo();
+    }
+
+    private void marcarListo(ClienteRemoto c) {
+        if (enPartida || c.listo) return;
+        c.listo = true;
+        empezarSiTodosListos();
+    }
+
+    // Arranca con dos o más, cuando todos los que están dieron listo: al llegar un
+    // READY, o al irse del lobby el único que faltaba
+    private void empezarSiTodosListos() {
+        if (enPartida || conectados < 2) return;
+        for (int id = 1; id <= capacidad; id++) {
+            if (clientes[id] != null && !clientes[id].listo) return;
+        }
+        empezarPartida();
+    }
+
+    private void empezarPartida() {
+        partida.reiniciar();
+        enPartida = true;
+
+        for (int id = 1; id <= capacidad; id++) {
+            ClienteRemoto c = clientes[id];
+            if (c == null) continue;
+            c.reiniciarPartida();
+
+            if (c.binario) {
+                // El primer avanzar() (tick 1) corre en este mismo tick
+                Protocolo.escribirInicio(bufferEnvio, c.siguienteSecuencia(), ahoraTick - PERIODO_TICK_NS);
+                enviarFiableA(c);
+            } else {
+                // Lo que estuvo callado en el lobby no cuenta: el plazo corre desde el START
+                c.ultimoRecibido = ahoraTick;
+                enviarTexto("START", c.direccion);
+            }
+        }
+    }
+
+    private void terminarPartida(int ganador) {
+        enPartida = false;
+
+        for (int id = 1; id <= capacidad; id++) {
+            ClienteRemoto c = clientes[id];
+            if (c == null) continue;
+            c.listo = false;
+
+            if (c.binario) {
+                Protocolo.escribirFin(bufferEnvio, c.siguienteSecuencia(), ganador);
+                enviarFiableA(c);
+            } else {
+                enviarTexto("FIN;ganador=" + ganador, c.direccion);
+            }
+        }
+    }
+
+    private void descartarInactivos(long ahora) {
+        boolean cambio = false;
+
+        for (int id = 1; id <= capacidad; id++) {
+            ClienteRemoto c = clientes[id];
+            if (c == null) continue;
+
+            // El cliente de texto no manda nada entre el READY y el START (ni tiene
+            // latido): en el lobby no se lo da por caído. Si se fue, se nota al
+            // empezar la partida, cuando deja de mandar su estado
+            boolean callado = ahora - c.ultimoRecibido >= TIMEOUT_CLIENTE_NS && (c.binario || enPartida);
+            if (!callado && !c.saturado) continue;
+
+            clientes[id] = null;
+            descompresor.reiniciar(id);
+            conectados--;
+            cambio = true;
+            bajas.offer(new Baja(c.direccion, this));
+        }
+
+        if (!cambio) return;
+
+        // Abandonar cuenta como chocar: si queda uno solo, gana. Sólo se cuenta;
+        // los choques de este tick los barre adjudicarChoques() con el avance nuevo.
+        // En el lobby, si el que se fue era el único sin listo, arrancan los demás
+        if (enPartida) {
+            terminarSiQuedaUno();
+        } else {
+            empezarSiTodosListos();
+        }
+        anunciarConteo();
+    }
+
+    // -------------------------
+    // Partida
+    // -------------------------
+    private void recibirEstado(ClienteRemoto c, PlayerState ps) {
+        c.reportado.x = ps.x;
+        c.reportado.y = ps.y;
+        c.reportado.ducking = ps.ducking;
+
+        // Reenviar a los demás (cada destino con sus propias bases)
+        for (int id = 1; id <= capacidad; id++) {
+            ClienteRemoto destino = clientes[id];
+            if (destino == null || destino == c) continue;
+
+            if (destino.binario) {
+                destino.compresores[c.id].escribir(bufferEnvio, destino.siguienteSecuencia(), c.reportado);
+                enviarA(destino);
+            } else {
+                enviarTexto("STATE;id=" + c.id
+                    + ";x=" + c.reportado.x
+                    + ";y=" + c.reportado.y
+                    + ";duck=" + (c.reportado.ducking ? 1 : 0), destino.direccion);
+            }
+        }
+    }
+
+    // Las entradas llegan repetidas entre paquetes: se simulan sólo las nuevas
+    private void simularEntradas(ClienteRemoto c, ByteBuffer datos) {
+        int n = Protocolo.leerCantidadEntradas(datos);
+        if (n <= 0) return;
+
+        // Un delta NaN o infinito pasa el recorte (min/max devuelven NaN) y deja
+        // al dino con y NaN, que no choca con nada: el paquete entero se descarta
+        for (int k = 0; k < n; k++) {
+            float d = Protocolo.leerDeltaEntrada(datos, k);
+            if (Float.isNaN(d) || Float.isInfinite(d)) return;
+        }
+
+        for (int k = 0; k < n; k++) {
+            int secuencia = Protocolo.leerSecuenciaEntrada(datos, k);
+            if (secuencia <= c.ultimaEntrada) continue;
+
+            float delta = Math.max(0f, Math.min(DELTA_ENTRADA_MAX, Protocolo.leerDeltaEntrada(datos, k)));
+            if (enPartida && c.vivo) {
+                FisicaDino.avanzar(c.dino,
+                    Protocolo.leerSaltoEntrada(datos, k),
+                    Protocolo.leerAgachadaEntrada(datos, k),
+                    delta);
+            }
+
+            c.ultimaEntrada = secuencia;
+            c.correccionPendiente = true;
+        }
+    }
+
+    /**
+     * Marca a los que chocaron. Cuando queda uno (o ninguno) vivo, la partida
+     * termina: gana el que queda, o 0 si chocaron todos en el mismo tick.
+     *
+     * Lo último que se sabe de cada dino lo vivió el cliente hace medio RTT
+     * (lo que tardó en llegar su entrada o su estado), con los obstáculos más
+     * a la derecha: se prueba contra donde estaban entonces. Sin RTT medido
+     * (texto, o todavía ningún control confirmado) se prueba contra el presente:
+     * el choque se adelanta velocidad × atraso (a 250 px/s y 50 ms, 12 px).
+     */
+    private void adjudicarChoques() {
+        float velocidad = partida.getVelocidad();
+
+        for (int id = 1; id <= capacidad; id++) {
+            ClienteRemoto c = clientes[id];
+            if (c == null || !c.vivo) continue;
+
+            // La x de cada jugador es fija: la que manda en STATE sólo sirve para dibujarlo
+            float x = Partida.xInicial(id);
+            float y = c.getY();
+            float retroceso = velocidad * atraso(c);
+            if (partida.choca(c.xChoque, c.yChoque, x, y, c.isAgachado(), retroceso)) c.vivo = false;
+            c.xChoque = x;
+            c.yChoque = y;
+        }
+
+        terminarSiQuedaUno();
+    }
+
+    private void terminarSiQuedaUno() {
+        int vivos = 0;
+        int ultimoVivo = 0;
+
+        for (int id = 1; id <= capacidad; id++) {
+            ClienteRemoto c = clientes[id];
+            if (c == null || !c.vivo) continue;
+            vivos++;
+            ultimoVivo = id;
+        }
+
+        if (vivos <= 1) terminarPartida(vivos == 1 ? ultimoVivo : 0);
+    }
+
+    // -------------------------
+    // Envíos
+    // -------------------------
+    private void anunciarObstaculo(EstadoObstaculo o) {
+        for (int id = 1; id <= capacidad; id++) {
+            ClienteRemoto c = clientes[id];
+            if (c == null) continue;
+
+            if (c.binario) {
+                Protocolo.escribirObstaculo(bufferEnvio, c.siguienteSecuencia(), o);
+                enviarA(c);
+            } else {
+                enviarTexto("OBST;id=" + o.id
+                    + ";x=" + o.x
+                    + ";y=" + o.y
+                    + ";w=" + o.width
+                    + ";h=" + o.height
+                    + ";t=" + o.type
+                    + ";tick=" + o.tick, c.direccion);
+            }
+        }
+    }
+
+    private void contestarPing(ClienteRemoto c, long t0, long t1) {
+        Protocolo.escribirPong(bufferEnvio, c.siguienteSecuencia(), t0, t1, System.nanoTime());
+        enviarA(c);
+    }
+
+    private void anunciarConteo() {
+        for (int id = 1; id <= capacidad; id++) {
+            if (clientes[id] != null) enviarConteo(clientes[id]);
+        }
+    }
+
+    private void enviarAsignacion(ClienteRemoto c) {
+        if (c.binario) {
+            Protocolo.escribirAsignacion(bufferEnvio, c.siguienteSecuencia(), c.id, id);
+            enviarFiableA(c);
+        } else {
+            enviarTexto("ASSIGN;id=" + c.id + ";sala=" + id, c.direccion);
+        }
+    }
+
+    private void enviarConteo(ClienteRemoto c) {
+        if (c.binario) {
+            Protocolo.escribirConteo(bufferEnvio, c.siguienteSecuencia(), conectados);
+            enviarFiableA(c);
+        } else {
+            enviarTexto("COUNT;players=" + conectados, c.direccion);
+        }
+    }
+
+    // Un ACK por cliente con STATE_DELTA nuevos: su próxima base
+    private void confirmarEstadosRecibidos() {
+        int pendientes = descompresor.tomarPendientesDeAck();
+
+        while (pendientes != 0) {
+            int id = Integer.numberOfTrailingZeros(pendientes);
+            pendientes &= pendientes - 1;
+
+            ClienteRemoto c = id <= capacidad ? clientes[id] : null;
+            if (c == null) continue;
+
+            Protocolo.escribirAck(bufferEnvio, c.siguienteSecuencia(), id, descompresor.getUltimaSecuencia(id));
+            enviarA(c);
+        }
+    }
+
+    // Una corrección por tick como mucho, y sólo si llegaron entradas nuevas
+    private void enviarCorrecciones() {
+        for (int id = 1; id <= capacidad; id++) {
+            ClienteRemoto c = clientes[id];
+            if (c == null || !c.correccionPendiente) continue;
+            c.correccionPendiente = false;
+
+            correccion.secuencia = c.ultimaEntrada;
+            correccion.y = c.dino.y;
+            correccion.velY = c.dino.velY;
+            correccion.enSuelo = c.dino.enSuelo;
+
+            Protocolo.escribirCorreccion(bufferEnvio, c.siguienteSecuencia(), correccion);
+            enviarA(c);
+        }
+    }
+
+    private void enviarControl(ClienteRemoto c, byte tipo) {
+        Protocolo.escribirControl(bufferEnvio, tipo, c.siguienteSecuencia());
+        if (Protocolo.esFiable(tipo)) {
+            enviarFiableA(c);
+        } else {
+            enviarA(c);
+        }
+    }
+
+    // Control: numerado y guardado para reenviar hasta que el cliente lo confirme. Con
+    // la ventana llena espera y sale en mantenerControl(); si ni eso, el cliente hace
+    // rato que no confirma nada y se lo da por caído en el próximo tick
+    private void enviarFiableA(ClienteRemoto c) {
+        boolean enVentana;
+        try {
+            enVentana = c.fiable.registrar(bufferEnvio, System.nanoTime());
+        } catch (IllegalStateException e) {
+            c.saturado = true;
+            return;
+        }
+        if (enVentana) enviarA(c);
+    }
+
+    // Binario: todo paquete lleva las confirmaciones del control que mandó el cliente
+    private void enviarA(ClienteRemoto c) {
+        c.fiable.sellar(bufferEnvio);
+        enviar(bufferEnvio, c.direccion);
+    }
+
+    // Lo que esperaba lugar, reenvíos vencidos y, si nada más salió, un ALIVE con las confirmaciones pendientes
+    private void mantenerControl(long ahora) {
+        for (int id = 1; id <= capacidad; id++) {
+            ClienteRemoto c = clientes[id];
+            if (c == null || !c.binario) continue;
+
+            for (ByteBuffer r = c.fiable.vencido(ahora); r != null; r = c.fiable.vencido(ahora)) {
+                enviar(r, c.direccion);
+            }
+            if (c.fiable.hayAckPendiente()) enviarControl(c, Protocolo.ALIVE);
+        }
+    }
+
+    private void enviarTexto(String msg, SocketAddress destino) {
+        enviar(ByteBuffer.wrap(msg.getBytes(StandardCharsets.UTF_8)), destino);
+    }
+
+    // DatagramChannel.send se puede llamar desde varios workers a la vez
+    private void enviar(ByteBuffer datos, SocketAddress destino) {
+        try {
+            canal.send(datos, destino);
+        } catch (IOException ignored) {}
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private ClienteRemoto buscarCliente(SocketAddress origen) {
+        for (int id = 1; id <= capacidad; id++) {
+            if (clientes[id] != null && clientes[id].direccion.equals(origen)) return clientes[id];
+        }
+        return null;
+    }
+
+    // Segundos que tarda en llegar lo que manda el cliente: medio RTT del canal de control
+    private static float atraso(ClienteRemoto c) {
+        if (!c.binario) return 0f;
+        return Math.min(ATRASO_MAXIMO, c.fiable.getRttMillis() / 2000f);
+    }
+
+    private int idLibre() {
+        for (int id = 1; id <= capacidad; id++) {
+            if (clientes[id] == null) return id;
+        }
+        return 0;
+    }
+
+    private static String leerValor(String msg, String clave) {
+        String patron = clave + "=";
+        int i = msg.indexOf(patron);
+        if (i == -1) return null;
+        i += patron.length();
+
+        int fin = msg.indexOf(';', i);
+        if (fin == -1) fin = msg.length();
+
+        return msg.substring(i, fin);
+    }
+}
@@ -0,0 +1,333 @@
+package com.dinochrome.game.server;
+
+import com.dinochrome.game.net.Protocolo;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Servidor autoritativo del multijugador, sin nada de libGDX.
+ *
+ * Habla el mismo protocolo que GameClient y reparte a los jugadores en salas:
+ * cada sala es una partida de dos o más con su propio lobby (ver Sala).
+ * Un JOIN con sala 0 entra a la primera sala abierta con lugar; si no hay,
+ * se crea una. Un JOIN con sala N entra a esa (y la crea si no existe).
+ *
+ * Hilos:
+ * - "Servidor-UDP": recibe, contesta el broadcast, elige sala para los JOIN
+ *   y deja cada datagrama en la bandeja de su sala. Es el único que toca el
+ *   directorio de salas y direcciones.
+ * - "Planificador-Salas" + ForkJoinPool: corre el tick de todas las salas.
+ *
+ * Se puede levantar dentro del mismo proceso para pruebas: con puerto 0 elige
+ * uno libre (ver getPuerto()).
+ */
+public class ServidorJuego {
+
+    public static final int PUERTO = 4321;
+
+    public static final int TICK_HZ = Protocolo.TICK_HZ_SERVIDOR;
+
+    public static final int MAX_JUGADORES_POR_SALA = 8;
+    private static final int MAX_SALAS = 0xFFFF;
+
+    private final int puertoPedido;
+    private final long semilla;
+    private final int jugadoresPorSala;
+    private final PlanificadorSalas planificador;
+
+    private DatagramChannel canal;
+    private Selector selector;
+    private Thread hilo;
+    private volatile boolean corriendo = false;
+
+    private final ByteBuffer bufferRecepcion = ByteBuffer.allocateDirect(2048);
+
+    // Directorio: sólo lo toca el hilo de recepción
+    private final HashMap<SocketAddress, Sala> salaPorDireccion = new HashMap<>();
+    private final HashMap<Integer, Sala> salaPorId = new HashMap<>();
+    private Sala salaAbierta = null;
+    private int proximaSala = 1;
+
+    // Clientes que salieron de su sala (los producen los ticks, los consume el hilo de recepción)
+    private final ConcurrentLinkedQueue<Sala.Baja> bajas = new ConcurrentLinkedQueue<>();
+
+    private volatile long paquetesDescartados = 0;
+
+    public ServidorJuego(int puerto) {
+        this(puerto, System.nanoTime());
+    }
+
+    /** Con la misma semilla aparecen los mismos obstáculos (pruebas reproducibles). */
+    public ServidorJuego(int puerto, long semilla) {
+        this(puerto, semilla, 2, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param jugadoresPorSala cuántos entran a cada sala (2..MAX_JUGADORES_POR_SALA)
+     * @param hilos            workers del pool que corre los ticks
+     */
+    public ServidorJuego(int puerto, long semilla, int jugadoresPorSala, int hilos) {
+        if (jugadoresPorSala < 2 || jugadoresPorSala > MAX_JUGADORES_POR_SALA) {
+            throw new IllegalArgumentException("jugadoresPorSala fuera de rango: " + jugadoresPorSala);
+        }
+        this.puertoPedido = puerto;
+        this.semilla = semilla;
+        this.jugadoresPorSala = jugadoresPorSala;
+        this.planificador = new PlanificadorSalas(TICK_HZ, Math.max(1, hilos));
+    }
+
+    // -------------------------
+    // Ciclo de vida
+    // -------------------------
+
+    /** Abre el puerto y arranca los hilos del servidor. */
+    public void iniciar() throws IOException {
+        canal = DatagramChannel.open();
+        canal.bind(new InetSocketAddress(puertoPedido));
+        canal.configureBlocking(false);
+
+        selector = Selector.open();
+        canal.register(selector, SelectionKey.OP_READ);
+
+        corriendo = true;
+        hilo = new Thread(this::loop, "Servidor-UDP");
+        hilo.setDaemon(true);
+        hilo.start();
+
+        planificador.iniciar();
+    }
+
+    /** Para los hilos y cierra el puerto. Se puede llamar más de una vez. */
+    public void detener() {
+        if (!corriendo) return;
+        corriendo = false;
+        selector.wakeup();
+        planificador.detener();
+
+        try {
+            hilo.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            selector.close();
+        } catch (IOException ignored) {}
+        try {
+            canal.close();
+        } catch (IOException ignored) {}
+    }
+
+    /** Puerto real en el que escucha (útil si se pidió el 0). */
+    public int getPuerto() {
+        try {
+            return ((InetSocketAddress) canal.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    // -------------------------
+    // Métricas
+    // -------------------------
+    public long getTicks() {
+        return planificador.getTicks();
+    }
+
+    /** Ticks que tardaron más que el período (el servidor no da abasto). */
+    public long getTicksAtrasados() {
+        return planificador.getTicksAtrasados();
+    }
+
+    public double getPromedioTickMillis() {
+        return planificador.getPromedioTickNanos() / 1_000_000.0;
+    }
+
+    public double getMaximoTickMillis() {
+        return planificador.getMaximoTickNanos() / 1_000_000.0;
+    }
+
+    public int getSalasActivas() {
+        return planificador.getSalasActivas();
+    }
+
+    public int getSalasEnPartida() {
+        return planificador.getSalasEnPartida();
+    }
+
+    public int getJugadores() {
+        return planificador.getJugadores();
+    }
+
+    /** Salas cerradas porque su tick tiró una excepción. */
+    public long getSalasFallidas() {
+        return planificador.getSalasFallidas();
+    }
+
+    public int getHilos() {
+        return planificador.getHilos();
+    }
+
+    /** Datagramas tirados: bandeja de la sala llena, sin sala o demasiado largos. */
+    public long getPaquetesDescartados() {
+        return paquetesDescartados;
+    }
+
+    // -------------------------
+    // Loop de recepción
+    // -------------------------
+    private void loop() {
+        while (corriendo) {
+            try {
+                if (selector.select(50) > 0) {
+                    selector.selectedKeys().clear();
+                }
+
+                procesarBajas();
+
+                // Drenar todo lo que haya llegado
+                while (true) {
+                    bufferRecepcion.clear();
+                    SocketAddress origen = canal.receive(bufferRecepcion);
+                    if (origen == null) break;
+                    bufferRecepcion.flip();
+                    recibir(bufferRecepcion, origen, System.nanoTime());
+                }
+
+            } catch (Exception e) {
+                // canal cerrado o datagrama raro: seguimos si todavía estamos corriendo
+            }
+        }
+    }
+
+    private void recibir(ByteBuffer datos, SocketAddress origen, long ahora) {
+        Sala sala = salaPorDireccion.get(origen);
+
+        // Su sala se cerró por una falla: se lo suelta y se lo atiende como a uno nuevo
+        if (sala != null && sala.cerrada) {
+            soltar(origen, sala);
+            sala = null;
+        }
+
+        if (sala == null) {
+            // Sin sala sólo se atiende el broadcast y el JOIN
+            if (Protocolo.esBinario(datos)) {
+                if (Protocolo.leerTipo(datos) != Protocolo.JOIN) return;
+                sala = elegirSala(Protocolo.leerSalaUnion(datos), origen);
+            } else {
+                String msg = StandardCharsets.UTF_8.decode(datos.duplicate()).toString().trim();
+                if (msg.equals("BUSCAR_SERVIDOR")) {
+                    responderBusqueda(origen);
+                    return;
+                }
+                if (!msg.equals("JOIN") && !msg.startsWith("JOIN;")) return;
+                sala = elegirSala(leerSalaTexto(msg), origen);
+            }
+            if (sala == null) {
+                paquetesDescartados++;
+                return;
+            }
+        }
+
+        if (!sala.bandeja.ofrecer(datos, origen, ahora)) paquetesDescartados++;
+    }
+
+    private void responderBusqueda(SocketAddress origen) {
+        byte[] resp = ("SERVIDOR_AQUI;bin=" + Protocolo.VERSION).getBytes(StandardCharsets.UTF_8);
+        try {
+            canal.send(ByteBuffer.wrap(resp), origen);
+        } catch (IOException ignored) {}
+    }
+
+    // -------------------------
+    // Directorio de salas (hilo de recepción)
+    // -------------------------
+
+    /** Sala para un JOIN nuevo; null si la pedida está llena o jugando. */
+    private Sala elegirSala(int pedida, SocketAddress origen) {
+        Sala sala;
+
+        if (pedida != 0) {
+            sala = salaPorId.get(pedida);
+            if (sala == null) sala = crearSala(pedida);
+            if (!tieneLugar(sala)) return null;
+        } else {
+            if (salaAbierta == null || !tieneLugar(salaAbierta)) {
+                salaAbierta = crearSala(siguienteIdLibre());
+            }
+            sala = salaAbierta;
+        }
+
+        if (sala == null) return null;
+
+        sala.reservas++;
+        salaPorDireccion.put(origen, sala);
+        return sala;
+    }
+
+    private boolean tieneLugar(Sala sala) {
+        return sala != null && !sala.cerrada && !sala.enPartida && sala.reservas < sala.capacidad;
+    }
+
+    private Sala crearSala(int id) {
+        if (id == 0) return null;
+
+        Sala sala = new Sala(id, jugadoresPorSala, semilla + id, canal, bajas);
+        salaPorId.put(id, sala);
+        planificador.agregar(sala);
+        return sala;
+    }
+
+    private int siguienteIdLibre() {
+        for (int i = 0; i < MAX_SALAS; i++) {
+            int id = proximaSala;
+            proximaSala = proximaSala % MAX_SALAS + 1;
+            if (!salaPorId.containsKey(id)) return id;
+        }
+        return 0;
+    }
+
+    // Quien se fue libera su lugar; una sala vacía se cierra y el planificador la suelta
+    private void procesarBajas() {
+        for (Sala.Baja b = bajas.poll(); b != null; b = bajas.poll()) {
+            soltar(b.direccion, b.sala);
+        }
+    }
+
+    private void soltar(SocketAddress direccion, Sala sala) {
+        if (salaPorDireccion.get(direccion) != sala) return;
+        salaPorDireccion.remove(direccion);
+
+        sala.reservas--;
+        // Una cerrada por falla deja libre su id aunque todavía tenga reservas
+        if (sala.reservas > 0 && !sala.cerrada) return;
+
+        sala.cerrada = true;
+        salaPorId.remove(sala.id, sala);
+        if (salaAbierta == sala) salaAbierta = null;
+    }
+
+    private static int leerSalaTexto(String msg) {
+        int i = msg.indexOf("sala=");
+        if (i == -1) return 0;
+        i += "sala=".length();
+
+        int fin = msg.indexOf(';', i);
+        if (fin == -1) fin = msg.length();
+
+        try {
+            return Integer.parseInt(msg.substring(i, fin)) & 0xFFFF;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
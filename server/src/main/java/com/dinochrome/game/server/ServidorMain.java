@@ -0,0 +1,16 @@
+package com.dinochrome.game.server;
+
+/** Arranca el servidor en primer plano: java -jar DinoChrome-server.jar [puerto] */
+public class ServidorMain {
+
+    public static void main(String[] args) throws Exception {
+        int puerto = args.length > 0 ? Integer.parseInt(args[0]) : ServidorJuego.PUERTO;
+
+        ServidorJuego servidor = new ServidorJuego(puerto);
+        servidor.iniciar();
+        Runtime.getRuntime().addShutdownHook(new Thread(servidor::detener));
+
+        System.out.println("Servidor escuchando en UDP " + servidor.getPuerto());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,219 @@
+package com.dinochrome.game.server;
+
+import com.dinochrome.game.net.ColaEventos;
+import com.dinochrome.game.net.GameClient;
+import com.dinochrome.game.net.PlayerState;
+import com.dinochrome.game.net.Prediccion;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Un ServidorJuego en un puerto libre y dos GameClient reales por loopback:
+ * JOIN, READY/START, INPUT con su corrección y el FIN que decide el servidor
+ * (con los choques donde él dice, no donde dicen los clientes).
+ */
+public class PartidaEnRedTest {
+
+    private static final long ESPERA_MS = 3_000;
+
+    // Sin entradas ni estados los dinos quedan parados en su x de arranque: el
+    // primer obstáculo que alcanza al de más a la derecha (id 2) lo alcanza
+    // antes que al otro, así que gana el 1
+    private static final long ESPERA_FIN_MS = 30_000;
+
+    // El plazo del servidor para un cliente callado (5 s) y un poco más
+    private static final long ESPERA_ABANDONO_MS = 8_000;
+
+    private ServidorJuego servidor;
+    private GameClient a;
+    private GameClient b;
+
+    @Before
+    public void levantar() throws Exception {
+        servidor = new ServidorJuego(0, 1L, 2, 1);
+        servidor.iniciar();
+
+        InetSocketAddress direccion = new InetSocketAddress("127.0.0.1", servidor.getPuerto());
+        a = new GameClient(direccion, 0);
+        b = new GameClient(direccion, 0);
+    }
+
+    @After
+    public void bajar() {
+        if (a != null) a.cerrar();
+        if (b != null) b.cerrar();
+        servidor.detener();
+    }
+
+    @Test
+    public void unirseAsignaIdsDistintosEnLaMismaSala() {
+        esperar("ASSIGN de los dos", () -> a.myId != 0 && b.myId != 0, ESPERA_MS);
+        esperar("COUNT con los dos", () -> a.playerCount == 2 && b.playerCount == 2, ESPERA_MS);
+
+        assertTrue(a.isBinario());
+        assertNotEquals(a.myId, b.myId);
+        assertEquals(a.sala, b.sala);
+    }
+
+    @Test
+    public void conLosDosListosEmpiezaYSeCorrigenLasEntradas() {
+        empezar();
+
+        // El estado de uno le llega al otro
+        PlayerState propio = new PlayerState();
+        propio.playerId = a.myId;
+        propio.x = Partida.xInicial(a.myId);
+        propio.y = 12f;
+        a.send(propio);
+        assertEquals(a.myId, esperarEvento(b, ColaEventos.ESTADO, ESPERA_MS));
+
+        // INPUT: el servidor simula las entradas y contesta por la última
+        Prediccion prediccion = new Prediccion(64);
+        for (int i = 0; i < 3; i++) prediccion.aplicar(i == 0, false, 1f / 60f);
+        int ultima = prediccion.getSecuencia(prediccion.getPendientes() - 1);
+        b.sendInputs(b.myId, prediccion);
+
+        assertEquals(ultima, esperarEvento(b, ColaEventos.CORRECCION, ESPERA_MS));
+    }
+
+    @Test
+    public void elServidorTerminaLaPartidaConFin() {
+        empezar();
+
+        assertEquals(1, esperarEvento(a, ColaEventos.FIN, ESPERA_FIN_MS));
+        assertEquals(1, esperarEvento(b, ColaEventos.FIN, ESPERA_MS));
+    }
+
+    @Test
+    public void laXYLaAlturaQueMandaElClienteNoLoSalvan() {
+        empezar();
+
+        // El de más a la derecha dice estar lejos y en el aire: igual choca primero
+        GameClient tramposo = a.myId == 2 ? a : b;
+        GameClient otro = tramposo == a ? b : a;
+        PlayerState falso = new PlayerState();
+        falso.playerId = tramposo.myId;
+        falso.x = -5000f;
+        falso.y = 200f;
+
+        assertEquals(otro.myId, esperarEvento(otro, ColaEventos.FIN, ESPERA_FIN_MS, () -> tramposo.send(falso)));
+    }
+
+    @Test
+    public void unaEntradaConDeltaNaNSeDescarta() {
+        empezar();
+
+        // Con y NaN el dino no chocaría nunca: el paquete no se simula ni se corrige
+        GameClient tramposo = a.myId == 2 ? a : b;
+        GameClient otro = tramposo == a ? b : a;
+        Prediccion prediccion = new Prediccion(64);
+        prediccion.aplicar(true, false, Float.NaN);
+
+        assertEquals(otro.myId, esperarEvento(otro, ColaEventos.FIN, ESPERA_FIN_MS,
+            () -> tramposo.sendInputs(tramposo.myId, prediccion)));
+        assertEquals(-1, buscarEvento(tramposo, ColaEventos.CORRECCION));
+    }
+
+    @Test
+    public void siSeVaElUnicoSinListoEmpiezanLosDemas() throws Exception {
+        ServidorJuego deTres = new ServidorJuego(0, 1L, 3, 1);
+        deTres.iniciar();
+        InetSocketAddress direccion = new InetSocketAddress("127.0.0.1", deTres.getPuerto());
+        GameClient x = new GameClient(direccion, 0);
+        GameClient y = new GameClient(direccion, 0);
+        GameClient z = new GameClient(direccion, 0);
+
+        try {
+            esperar("COUNT con los tres", () -> x.playerCount == 3 && y.playerCount == 3, ESPERA_MS);
+            x.sendReady();
+            y.sendReady();
+
+            // z no da listo y se va sin avisar: cuando vence su plazo, los otros dos arrancan
+            z.cerrar();
+            esperarEvento(x, ColaEventos.INICIO, ESPERA_ABANDONO_MS);
+            esperarEvento(y, ColaEventos.INICIO, ESPERA_MS);
+            assertEquals(2, x.playerCount);
+        } finally {
+            x.cerrar();
+            y.cerrar();
+            deTres.detener();
+        }
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private void empezar() {
+        esperar("COUNT con los dos", () -> a.playerCount == 2 && b.playerCount == 2, ESPERA_MS);
+        a.sendReady();
+        b.sendReady();
+
+        esperarEvento(a, ColaEventos.INICIO, ESPERA_MS);
+        esperarEvento(b, ColaEventos.INICIO, ESPERA_MS);
+    }
+
+    /**
+     * Vacía la cola del cliente hasta ver un evento de ese tipo. Devuelve lo que
+     * lo identifica: el jugador (ESTADO), la secuencia (CORRECCION), el ganador (FIN).
+     */
+    private static int esperarEvento(GameClient c, int tipo, long ms) {
+        return esperarEvento(c, tipo, ms, () -> {});
+    }
+
+    // cadaVuelta: lo que el cliente hace mientras espera (mandar su estado)
+    private static int esperarEvento(GameClient c, int tipo, long ms, Runnable cadaVuelta) {
+        long limite = System.currentTimeMillis() + ms;
+
+        while (System.currentTimeMillis() < limite) {
+            cadaVuelta.run();
+            int dato = buscarEvento(c, tipo);
+            if (dato >= 0) return dato;
+            dormir();
+        }
+
+        fail("no llegó el evento " + tipo + " en " + ms + " ms");
+        return -1;
+    }
+
+    // Lo que ya llegó, sin esperar; -1 si no hay ninguno de ese tipo
+    private static int buscarEvento(GameClient c, int tipo) {
+        c.eventos.abrirLote();
+        for (ColaEventos.Evento e = c.eventos.siguiente(); e != null; e = c.eventos.siguiente()) {
+            int dato = -1;
+            if (e.tipo == tipo) {
+                if (tipo == ColaEventos.ESTADO) dato = e.jugador.playerId;
+                else if (tipo == ColaEventos.CORRECCION) dato = e.correccion.secuencia;
+                else if (tipo == ColaEventos.FIN) dato = e.ganador;
+                else dato = 0;
+            }
+            c.eventos.liberar();
+            if (dato >= 0) return dato;
+        }
+        return -1;
+    }
+
+    private static void esperar(String que, BooleanSupplier condicion, long ms) {
+        long limite = System.currentTimeMillis() + ms;
+        while (!condicion.getAsBoolean()) {
+            if (System.currentTimeMillis() >= limite) fail("no pasó: " + que);
+            dormir();
+        }
+    }
+
+    private static void dormir() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
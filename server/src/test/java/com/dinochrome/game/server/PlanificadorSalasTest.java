@@ -0,0 +1,92 @@
+package com.dinochrome.game.server;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Una sala cuyo tick tira una excepción no frena a las demás: el planificador
+ * la cuenta, la cierra y les da de baja a sus clientes.
+ */
+public class PlanificadorSalasTest {
+
+    private static final long ESPERA_MS = 3_000;
+
+    private final ConcurrentLinkedQueue<Sala.Baja> bajas = new ConcurrentLinkedQueue<>();
+    private final PlanificadorSalas planificador = new PlanificadorSalas(ServidorJuego.TICK_HZ, 2);
+
+    @After
+    public void bajar() {
+        planificador.detener();
+    }
+
+    @Test
+    public void unaSalaQueFallaSeCierraYSueltaASusClientes() {
+        // Sin canal: el primer envío (el ASSIGN de un JOIN) tira NullPointerException
+        Sala rota = new Sala(1, 2, 1L, null, bajas);
+        Sala sana = new Sala(2, 2, 2L, null, bajas);
+        SocketAddress origen = new InetSocketAddress("127.0.0.1", 40_001);
+
+        planificador.agregar(rota);
+        planificador.agregar(sana);
+        planificador.iniciar();
+
+        assertTrue(rota.bandeja.ofrecer(texto("JOIN"), origen, System.nanoTime()));
+        esperarCerrada(rota);
+
+        assertEquals(1, planificador.getSalasFallidas());
+        assertEquals(0, rota.getConectados());
+
+        Sala.Baja baja = bajas.poll();
+        assertEquals(origen, baja.direccion);
+        assertSame(rota, baja.sala);
+
+        // La otra sigue corriendo
+        long ticks = planificador.getTicks();
+        esperarTicks(ticks + 5);
+        assertFalse(sana.cerrada);
+        assertEquals(1, planificador.getSalasFallidas());
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private static ByteBuffer texto(String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void esperarCerrada(Sala sala) {
+        long limite = System.currentTimeMillis() + ESPERA_MS;
+        while (!sala.cerrada) {
+            if (System.currentTimeMillis() >= limite) fail("la sala " + sala.id + " no se cerró");
+            dormir();
+        }
+    }
+
+    private void esperarTicks(long ticks) {
+        long limite = System.currentTimeMillis() + ESPERA_MS;
+        while (planificador.getTicks() < ticks) {
+            if (System.currentTimeMillis() >= limite) fail("el planificador no avanzó");
+            dormir();
+        }
+    }
+
+    private static void dormir() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.dinochrome.game.sim;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un paso de obstáculos (mover + probar contra el dino + quitar los que salen)
+ * con los dos formatos: un objeto por obstáculo en una lista, como antes, y
+ * AlmacenObstaculos (arreglos paralelos).
+ *
+ * Los obstáculos van y vienen (dx cambia de signo en cada llamada) y el dino
+ * queda arriba de todos: la cantidad no cambia y se mide sólo el recorrido.
+ *
+ * Además, el choque de 8 dinos a nivel del suelo: la lista recorrida entera
+ * contra la fase amplia del almacén (sweep-and-prune).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ObstaculosBench {
+
+    /** La forma de antes: un objeto en el heap por obstáculo. */
+    static final class ObstaculoObjeto {
+        float x;
+        float xAnterior;
+        float y;
+        float ancho;
+        float alto;
+        int tipo;
+    }
+
+    private static final float DX = 4f;
+
+    // Dino arriba de todo: nunca toca, así ningún recorrido corta antes
+    private static final float DINO_X1 = Simulacion.X_DINO;
+    private static final float DINO_X2 = Simulacion.X_DINO + Simulacion.ANCHO_HITBOX;
+    private static final float DINO_Y1 = 1_000f;
+    private static final float DINO_Y2 = 1_040f;
+
+    private static final int JUGADORES = 8;
+
+    @Param({"10", "1000", "100000"})
+    public int cantidad;
+
+    private final ArrayList<ObstaculoObjeto> objetos = new ArrayList<>();
+    private AlmacenObstaculos almacen;
+    private float signo = 1f;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        almacen = new AlmacenObstaculos(cantidad);
+        objetos.clear();
+
+        // Repartidos a la derecha del dino, lejos del borde izquierdo (el almacén los quiere por x)
+        float[] xs = new float[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            xs[i] = 200f + random.nextFloat() * 100_000f;
+        }
+        Arrays.sort(xs);
+
+        for (int i = 0; i < cantidad; i++) {
+            float x = xs[i];
+            boolean cactus = random.nextBoolean();
+            float y = cactus ? FisicaDino.Y_SUELO : FisicaDino.Y_SUELO + 15 + random.nextInt(2) * 15;
+            float ancho = cactus ? 20 + random.nextInt(10) : 40;
+            float alto = cactus ? 30 + random.nextInt(10) : 20;
+            int tipo = cactus ? AlmacenObstaculos.CACTUS : AlmacenObstaculos.PTERO;
+
+            ObstaculoObjeto o = new ObstaculoObjeto();
+            o.x = x;
+            o.xAnterior = x;
+            o.y = y;
+            o.ancho = ancho;
+            o.alto = alto;
+            o.tipo = tipo;
+            objetos.add(o);
+
+            almacen.agregar(x, y, ancho, alto, tipo, i + 1);
+        }
+    }
+
+    private float dx() {
+        signo = -signo;
+        return DX * signo;
+    }
+
+    @Benchmark
+    public boolean objetos() {
+        float dx = dx();
+        boolean toca = false;
+
+        for (int i = objetos.size() - 1; i >= 0; i--) {
+            ObstaculoObjeto o = objetos.get(i);
+            o.xAnterior = o.x;
+            o.x -= dx;
+
+            if (o.x + o.ancho < 0) {
+                objetos.remove(i);
+                continue;
+            }
+
+            if (DINO_X1 < o.x + o.ancho && DINO_X2 > o.x && DINO_Y1 < o.y + o.alto && DINO_Y2 > o.y) {
+                toca = true;
+            }
+        }
+        return toca;
+    }
+
+    @Benchmark
+    public boolean almacen() {
+        boolean toca = almacen.moverYProbar(dx(), DINO_X1, DINO_Y1, DINO_X2, DINO_Y2);
+        almacen.quitarSalidos();
+        return toca;
+    }
+
+    @Benchmark
+    public int choqueObjetos() {
+        int chocados = 0;
+        for (int j = 0; j < JUGADORES; j++) {
+            float x1 = Simulacion.X_DINO + j * 60f;
+            float x2 = x1 + Simulacion.ANCHO_HITBOX;
+            float y1 = FisicaDino.Y_SUELO;
+            float y2 = y1 + Simulacion.ALTO_PARADO;
+
+            for (int i = 0; i < objetos.size(); i++) {
+                ObstaculoObjeto o = objetos.get(i);
+                if (x1 < o.x + o.ancho && x2 > o.x && y1 < o.y + o.alto && y2 > o.y) {
+                    chocados++;
+                    break;
+                }
+            }
+        }
+        return chocados;
+    }
+
+    @Benchmark
+    public int choqueAlmacen() {
+        int chocados = 0;
+        for (int j = 0; j < JUGADORES; j++) {
+            float x1 = Simulacion.X_DINO + j * 60f;
+            float y1 = FisicaDino.Y_SUELO;
+            if (almacen.primeroQueToca(x1, y1, x1 + Simulacion.ANCHO_HITBOX, y1 + Simulacion.ALTO_PARADO) >= 0) {
+                chocados++;
+            }
+        }
+        return chocados;
+    }
+}
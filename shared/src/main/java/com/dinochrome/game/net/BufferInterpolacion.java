@@ -0,0 +1,169 @@
+package com.dinochrome.game.net;
+
+/**
+ * Buffer de instantáneas con marca de tiempo para dibujar a un jugador remoto.
+ *
+ * En vez de pegar el último STATE recibido, se dibuja "retardo" segundos en el
+ * pasado interpolando entre las dos instantáneas que rodean ese momento. Si faltan
+ * paquetes se extrapola con la última velocidad, como mucho "extrapolacionMaxima"
+ * segundos; después el jugador se queda quieto hasta que llegue algo nuevo.
+ *
+ * Todo en arreglos primitivos preasignados: agregar y muestrear no crean objetos.
+ */
+public final class BufferInterpolacion {
+
+    private final long[] tiempos;
+    private final float[] xs;
+    private final float[] ys;
+    private final boolean[] agachados;
+
+    // Ring: "primero" es la instantánea más vieja
+    private int primero = 0;
+    private int cantidad = 0;
+
+    // Última instantánea descartada: hace falta para extrapolar cuando queda una sola
+    private boolean hayAnterior = false;
+    private long anteriorTiempo;
+    private float anteriorX;
+    private float anteriorY;
+
+    private long retardoNanos;
+    private long extrapolacionMaximaNanos;
+
+    // Métricas
+    private int profundidad = 0;
+    private long subdesbordes = 0;
+
+    // Resultado del último muestrear()
+    public float x;
+    public float y;
+    public boolean agachado;
+
+    public BufferInterpolacion(int capacidad, float retardoSegundos, float extrapolacionMaximaSegundos) {
+        tiempos = new long[capacidad];
+        xs = new float[capacidad];
+        ys = new float[capacidad];
+        agachados = new boolean[capacidad];
+
+        setRetardo(retardoSegundos);
+        setExtrapolacionMaxima(extrapolacionMaximaSegundos);
+    }
+
+    public void setRetardo(float segundos) {
+        retardoNanos = (long) (segundos * 1_000_000_000L);
+    }
+
+    public void setExtrapolacionMaxima(float segundos) {
+        extrapolacionMaximaNanos = (long) (segundos * 1_000_000_000L);
+    }
+
+    public void limpiar() {
+        primero = 0;
+        cantidad = 0;
+        profundidad = 0;
+        hayAnterior = false;
+    }
+
+    /** Agrega una instantánea. Las que llegan desordenadas (más viejas que la última) se ignoran. */
+    public void agregar(long tiempoNanos, float x, float y, boolean agachado) {
+        if (cantidad > 0 && tiempoNanos <= tiempos[indice(cantidad - 1)]) return;
+
+        if (cantidad == tiempos.length) {
+            // Lleno: se pisa la más vieja
+            primero = indice(1);
+            cantidad--;
+        }
+
+        int i = indice(cantidad);
+        tiempos[i] = tiempoNanos;
+        xs[i] = x;
+        ys[i] = y;
+        agachados[i] = agachado;
+        cantidad++;
+    }
+
+    /**
+     * Calcula x/y/agachado para el instante (ahora - retardo).
+     * Devuelve false si todavía no hay ninguna instantánea.
+     */
+    public boolean muestrear(long ahoraNanos) {
+        if (cantidad == 0) {
+            profundidad = 0;
+            return false;
+        }
+
+        long t = ahoraNanos - retardoNanos;
+
+        // Descartar las que ya no hacen falta: alcanza con una anterior a t
+        while (cantidad > 1 && tiempos[indice(1)] <= t) {
+            hayAnterior = true;
+            anteriorTiempo = tiempos[primero];
+            anteriorX = xs[primero];
+            anteriorY = ys[primero];
+
+            primero = indice(1);
+            cantidad--;
+        }
+
+        int viejo = indice(0);
+
+        // t antes de todo lo que tenemos: se queda en la más vieja
+        if (t <= tiempos[viejo]) {
+            profundidad = cantidad;
+            copiar(viejo);
+            return true;
+        }
+
+        // t entre dos instantáneas: interpolar
+        if (cantidad > 1) {
+            int nuevo = indice(1);
+            float a = (float) (t - tiempos[viejo]) / (float) (tiempos[nuevo] - tiempos[viejo]);
+
+            profundidad = cantidad - 1;
+            x = xs[viejo] + (xs[nuevo] - xs[viejo]) * a;
+            y = ys[viejo] + (ys[nuevo] - ys[viejo]) * a;
+            agachado = agachados[viejo];
+            return true;
+        }
+
+        // t después de la última: faltan paquetes, extrapolar con límite
+        subdesbordes++;
+        profundidad = 0;
+        copiar(viejo);
+
+        if (hayAnterior) {
+            long dt = Math.min(t - tiempos[viejo], extrapolacionMaximaNanos);
+            float escala = (float) dt / (float) (tiempos[viejo] - anteriorTiempo);
+            x += (xs[viejo] - anteriorX) * escala;
+            y += (ys[viejo] - anteriorY) * escala;
+        }
+        return true;
+    }
+
+    // -------------------------
+    // Métricas
+    // -------------------------
+
+    /** Instantáneas disponibles por delante del instante dibujado (0 = se está extrapolando). */
+    public int getProfundidad() {
+        return profundidad;
+    }
+
+    /** Veces que se muestreó sin instantánea nueva (hubo que extrapolar o quedarse quieto). */
+    public long getSubdesbordes() {
+        return subdesbordes;
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private int indice(int desdePrimero) {
+        return (primero + desdePrimero) % tiempos.length;
+    }
+
+    private void copiar(int i) {
+        x = xs[i];
+        y = ys[i];
+        agachado = agachados[i];
+    }
+}
@@ -0,0 +1,304 @@
+package com.dinochrome.game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Entrega confiable y en orden de los mensajes de control (JOIN, READY, ASSIGN,
+ * COUNT, START, FIN) sobre UDP. El estado del juego no pasa por acá: sigue sin
+ * confirmación y gana el último que llega.
+ *
+ * - Cada mensaje de control lleva su propia secuencia (aparte de la del paquete).
+ * - Todo paquete que sale, del tipo que sea, lleva en la cabecera la última
+ *   secuencia de control recibida y un bitfield con las 31 anteriores.
+ * - Sólo se reenvía lo que no está confirmado, cuando vence un timeout que sale
+ *   del RTT medido (srtt + 4·rttvar, con backoff por reintento).
+ * - Del otro lado se entregan en orden; lo que llega adelantado espera su turno.
+ * - Si la ventana está llena, el mensaje espera en una cola (en orden) y sale
+ *   por vencido() apenas se confirma algo. Si también se llena la cola, el otro
+ *   lado no confirma nada hace rato: registrar() tira IllegalStateException.
+ *
+ * No es thread-safe: el que lo usa decide el lock (GameClient usa el de su buffer de envío).
+ */
+public final class CanalFiable {
+
+    // Mensajes en vuelo por sentido; 65536 es múltiplo, así el casillero es secuencia & MASCARA
+    private static final int VENTANA = 32;
+    private static final int MASCARA = VENTANA - 1;
+
+    private static final long RTO_INICIAL_NS = 200_000_000L;
+    private static final long RTO_MINIMO_NS = 30_000_000L;
+    private static final long RTO_MAXIMO_NS = 2_000_000_000L;
+    private static final int MAX_BACKOFF = 4;
+
+    // Mensajes que esperan lugar en la ventana
+    private static final int ESPERA = 64;
+
+    // -------------------------
+    // Emisión
+    // -------------------------
+    private final ByteBuffer[] enviados = new ByteBuffer[VENTANA];
+    private final int[] secuenciaEnviado = new int[VENTANA];
+    private final boolean[] enVuelo = new boolean[VENTANA];
+    private final long[] ultimoEnvio = new long[VENTANA];
+    private final int[] reintentos = new int[VENTANA];
+    private int proximaSecuencia = 0;
+
+    // Cola circular de lo que no entró en la ventana, todavía sin numerar
+    private final ByteBuffer[] enEspera = new ByteBuffer[ESPERA];
+    private int primeroEnEspera = 0;
+    private int cantidadEnEspera = 0;
+
+    // RTT (RFC 6298)
+    private boolean hayMedicion = false;
+    private double srtt = 0;
+    private double rttvar = 0;
+    private long rto = RTO_INICIAL_NS;
+
+    private long retransmisiones = 0;
+
+    // -------------------------
+    // Recepción
+    // -------------------------
+    private final ByteBuffer[] recibidos = new ByteBuffer[VENTANA];
+    private final int[] secuenciaRecibido = new int[VENTANA];
+    private final boolean[] porEntregar = new boolean[VENTANA];
+    private int esperada = 0;
+
+    // Lo que se confirma en la cabecera: la más nueva vista y las 31 anteriores (bit 0 = la nueva)
+    private int ultimaRecibida = 0;
+    private int bitsRecibidos = 0;
+    private boolean ackPendiente = false;
+
+    public CanalFiable() {
+        for (int i = 0; i < VENTANA; i++) {
+            enviados[i] = ByteBuffer.allocate(Protocolo.TAM_MAX);
+            recibidos[i] = ByteBuffer.allocate(Protocolo.TAM_MAX);
+        }
+        for (int i = 0; i < ESPERA; i++) enEspera[i] = ByteBuffer.allocate(Protocolo.TAM_MAX);
+    }
+
+    public void reiniciar() {
+        for (int i = 0; i < VENTANA; i++) {
+            enVuelo[i] = false;
+            porEntregar[i] = false;
+        }
+        proximaSecuencia = 0;
+        primeroEnEspera = 0;
+        cantidadEnEspera = 0;
+        esperada = 0;
+        ultimaRecibida = 0;
+        bitsRecibidos = 0;
+        ackPendiente = false;
+        hayMedicion = false;
+        rto = RTO_INICIAL_NS;
+    }
+
+    // -------------------------
+    // Emisión
+    // -------------------------
+
+    /**
+     * Numera el mensaje de control ya escrito en b (listo para enviar) y se queda
+     * una copia para reenviarlo. Devuelve false si la ventana está llena: el
+     * mensaje queda en espera y no hay que enviar b; sale después por vencido().
+     *
+     * @throws IllegalStateException si tampoco hay lugar en la espera
+     */
+    public boolean registrar(ByteBuffer b, long ahora) {
+        // Con algo esperando, lo nuevo va detrás aunque haya lugar: el orden no se rompe
+        if (cantidadEnEspera == 0 && !enVuelo[proximaSecuencia & MASCARA]) {
+            numerar(b, ahora);
+            return true;
+        }
+
+        if (cantidadEnEspera == ESPERA) {
+            throw new IllegalStateException("Control sin confirmar: " + VENTANA
+                + " en vuelo y " + ESPERA + " en espera");
+        }
+        ByteBuffer copia = enEspera[(primeroEnEspera + cantidadEnEspera) % ESPERA];
+        copiar(b, copia);
+        cantidadEnEspera++;
+        return false;
+    }
+
+    private void numerar(ByteBuffer b, long ahora) {
+        int i = proximaSecuencia & MASCARA;
+        Protocolo.escribirSecuenciaFiable(b, proximaSecuencia);
+
+        ByteBuffer copia = enviados[i];
+        copiar(b, copia);
+
+        secuenciaEnviado[i] = proximaSecuencia;
+        enVuelo[i] = true;
+        ultimoEnvio[i] = ahora;
+        reintentos[i] = 0;
+
+        proximaSecuencia = (proximaSecuencia + 1) & 0xFFFF;
+    }
+
+    /** Escribe las confirmaciones en la cabecera de un paquete que está por salir. */
+    public void sellar(ByteBuffer b) {
+        Protocolo.escribirAcks(b, ultimaRecibida, bitsRecibidos);
+        ackPendiente = false;
+    }
+
+    /**
+     * Próximo mensaje para mandar (ya sellado): uno en espera que ahora entra en
+     * la ventana, o uno sin confirmar cuyo timeout venció; null si no hay.
+     * Llamar en loop hasta null.
+     */
+    public ByteBuffer vencido(long ahora) {
+        if (cantidadEnEspera > 0 && !enVuelo[proximaSecuencia & MASCARA]) {
+            int i = proximaSecuencia & MASCARA;
+            numerar(enEspera[primeroEnEspera], ahora);
+            primeroEnEspera = (primeroEnEspera + 1) % ESPERA;
+            cantidadEnEspera--;
+
+            ByteBuffer copia = enviados[i];
+            copia.rewind();
+            sellar(copia);
+            return copia;
+        }
+
+        for (int i = 0; i < VENTANA; i++) {
+            if (!enVuelo[i]) continue;
+
+            long timeout = Math.min(RTO_MAXIMO_NS, rto << Math.min(reintentos[i], MAX_BACKOFF));
+            if (ahora - ultimoEnvio[i] < timeout) continue;
+
+            reintentos[i]++;
+            ultimoEnvio[i] = ahora;
+            retransmisiones++;
+
+            ByteBuffer copia = enviados[i];
+            copia.rewind();
+            sellar(copia);
+            return copia;
+        }
+        return null;
+    }
+
+    // -------------------------
+    // Recepción
+    // -------------------------
+
+    /** Para todo paquete binario que llega: libera lo que el otro lado confirmó. */
+    public void procesarAcks(ByteBuffer b, long ahora) {
+        int bits = Protocolo.leerBitsAck(b);
+        if (bits == 0) return;
+        int ack = Protocolo.leerAckFiable(b);
+
+        for (int k = 0; k < VENTANA && bits != 0; k++, bits >>>= 1) {
+            if ((bits & 1) == 0) continue;
+
+            int secuencia = (ack - k) & 0xFFFF;
+            int i = secuencia & MASCARA;
+            if (!enVuelo[i] || secuenciaEnviado[i] != secuencia) continue;
+
+            enVuelo[i] = false;
+            // Karn: un reenviado no sirve para medir (no se sabe a cuál envío responde)
+            if (reintentos[i] == 0) medirRtt(ahora - ultimoEnvio[i]);
+        }
+    }
+
+    /** Guarda un mensaje de control recibido (duplicados incluidos: igual hay que confirmarlos). */
+    public void recibir(ByteBuffer b) {
+        int secuencia = Protocolo.leerSecuenciaFiable(b);
+        ackPendiente = true;
+        anotarRecibido(secuencia);
+
+        // Viejo (ya entregado) o fuera de ventana: nada más que confirmar
+        if (((secuencia - esperada) & 0xFFFF) >= VENTANA) return;
+
+        int i = secuencia & MASCARA;
+        if (porEntregar[i] && secuenciaRecibido[i] == secuencia) return;
+
+        ByteBuffer copia = recibidos[i];
+        copiar(b, copia);
+
+        secuenciaRecibido[i] = secuencia;
+        porEntregar[i] = true;
+    }
+
+    /** Próximo mensaje en orden, o null si falta alguno. Vale hasta el próximo recibir(). */
+    public ByteBuffer entregar() {
+        int i = esperada & MASCARA;
+        if (!porEntregar[i] || secuenciaRecibido[i] != esperada) return null;
+
+        porEntregar[i] = false;
+        esperada = (esperada + 1) & 0xFFFF;
+        return recibidos[i];
+    }
+
+    /** Llegó control que todavía no viajó confirmado en ningún paquete. */
+    public boolean hayAckPendiente() {
+        return ackPendiente;
+    }
+
+    // -------------------------
+    // Métricas
+    // -------------------------
+    public int getEnVuelo() {
+        int n = 0;
+        for (int i = 0; i < VENTANA; i++) {
+            if (enVuelo[i]) n++;
+        }
+        return n;
+    }
+
+    /** Lo que espera lugar en la ventana (ya registrado, todavía sin enviar). */
+    public int getEnEspera() {
+        return cantidadEnEspera;
+    }
+
+    public long getRetransmisiones() {
+        return retransmisiones;
+    }
+
+    public float getRttMillis() {
+        return (float) (srtt / 1_000_000.0);
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private void anotarRecibido(int secuencia) {
+        if (bitsRecibidos == 0) {
+            ultimaRecibida = secuencia;
+            bitsRecibidos = 1;
+            return;
+        }
+
+        int adelante = (secuencia - ultimaRecibida) & 0xFFFF;
+        if (adelante == 0) return;
+
+        if (adelante < 0x8000) {
+            bitsRecibidos = (adelante >= 32 ? 0 : bitsRecibidos << adelante) | 1;
+            ultimaRecibida = secuencia;
+        } else {
+            int atras = (ultimaRecibida - secuencia) & 0xFFFF;
+            if (atras < 32) bitsRecibidos |= 1 << atras;
+        }
+    }
+
+    private void medirRtt(long muestra) {
+        if (!hayMedicion) {
+            srtt = muestra;
+            rttvar = muestra / 2.0;
+            hayMedicion = true;
+        } else {
+            rttvar = 0.75 * rttvar + 0.25 * Math.abs(srtt - muestra);
+            srtt = 0.875 * srtt + 0.125 * muestra;
+        }
+        rto = Math.max(RTO_MINIMO_NS, Math.min(RTO_MAXIMO_NS, (long) (srtt + 4 * rttvar)));
+    }
+
+    // Sin duplicate(): no crea un ByteBuffer por mensaje. b queda como estaba
+    private static void copiar(ByteBuffer b, ByteBuffer copia) {
+        int p = b.position();
+        copia.clear();
+        copia.put(b);
+        copia.flip();
+        b.position(p);
+    }
+}
@@ -0,0 +1,109 @@
+package com.dinochrome.game.net;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola acotada sin locks de un productor (hilo de red) y un consumidor (hilo de render).
+ *
+ * Los eventos son casilleros preasignados: el productor reserva uno, lo llena y lo
+ * publica; el consumidor lo lee y lo libera. No se crean objetos en ningún paso.
+ * Si la cola está llena el evento se descarta y se cuenta en getDesbordes().
+ */
+public final class ColaEventos {
+
+    // Tipos de evento
+    public static final int ESTADO = 1;
+    public static final int OBSTACULO = 2;
+    public static final int INICIO = 3;
+    public static final int CORRECCION = 4;
+    public static final int FIN = 5;
+
+    public static final class Evento {
+        public int tipo;
+        public long recibidoNanos;   // System.nanoTime() al llegar el datagrama
+        public final PlayerState jugador = new PlayerState();
+        public final EstadoObstaculo obstaculo = new EstadoObstaculo();
+        public final Correccion correccion = new Correccion();
+        public int ganador;          // FIN: id del ganador (0 = empate)
+    }
+
+    private final Evento[] casilleros;
+    private final int mascara;
+
+    // Próximo a leer (lo avanza el consumidor) y próximo a escribir (lo avanza el productor)
+    private final AtomicLong cabeza = new AtomicLong();
+    private final AtomicLong cola = new AtomicLong();
+
+    // Copias locales para no leer el contador del otro hilo en cada operación
+    private long cabezaVista = 0;   // sólo productor
+    private long finLote = 0;       // sólo consumidor
+
+    private volatile long desbordes = 0;
+
+    /** capacidad se redondea a la potencia de 2 siguiente. */
+    public ColaEventos(int capacidad) {
+        int tam = Integer.highestOneBit(Math.max(2, capacidad) - 1) << 1;
+        casilleros = new Evento[tam];
+        for (int i = 0; i < tam; i++) casilleros[i] = new Evento();
+        mascara = tam - 1;
+    }
+
+    // -------------------------
+    // Productor
+    // -------------------------
+
+    /** Casillero libre para llenar, o null si la cola está llena. */
+    public Evento reservar() {
+        long t = cola.get();
+        if (t - cabezaVista >= casilleros.length) {
+            cabezaVista = cabeza.get();
+            if (t - cabezaVista >= casilleros.length) {
+                desbordes++;
+                return null;
+            }
+        }
+        return casilleros[(int) t & mascara];
+    }
+
+    /** Hace visible al consumidor el casillero devuelto por reservar(). */
+    public void publicar() {
+        cola.lazySet(cola.get() + 1);
+    }
+
+    // -------------------------
+    // Consumidor
+    // -------------------------
+
+    /**
+     * Fija el lote de este frame: lo que llegue después queda para el próximo.
+     * Devuelve cuántos eventos hay en el lote.
+     */
+    public int abrirLote() {
+        finLote = cola.get();
+        return (int) (finLote - cabeza.get());
+    }
+
+    /** Próximo evento del lote (sin sacarlo), o null si el lote terminó. */
+    public Evento siguiente() {
+        long h = cabeza.get();
+        if (h >= finLote) return null;
+        return casilleros[(int) h & mascara];
+    }
+
+    /** Devuelve al productor el evento obtenido con siguiente(). */
+    public void liberar() {
+        cabeza.lazySet(cabeza.get() + 1);
+    }
+
+    // -------------------------
+    // Métricas
+    // -------------------------
+
+    public long getDesbordes() {
+        return desbordes;
+    }
+
+    public int getCapacidad() {
+        return casilleros.length;
+    }
+}
@@ -0,0 +1,82 @@
+package com.dinochrome.game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Lado emisor del STATE_DELTA.
+ *
+ * Guarda las últimas instantáneas enviadas (ya cuantizadas). Cuando el otro lado
+ * confirma una con ACK, pasa a ser la base: los siguientes paquetes sólo llevan lo
+ * que cambió respecto de ella. Sin base confirmada (o muy vieja) se manda todo.
+ */
+public final class CompresorEstado {
+
+    private static final int HISTORIA = EstadoCuantizado.MAX_DISTANCIA_BASE;
+
+    private final int[] secuencias = new int[HISTORIA];
+    private final int[] xs = new int[HISTORIA];
+    private final int[] ys = new int[HISTORIA];
+    private final boolean[] validas = new boolean[HISTORIA];
+
+    private boolean hayBase = false;
+    private int baseSecuencia;
+    private int baseX;
+    private int baseY;
+
+    public void reiniciar() {
+        hayBase = false;
+        for (int i = 0; i < HISTORIA; i++) validas[i] = false;
+    }
+
+    /** El receptor confirmó la instantánea "secuencia": si la tenemos, es la nueva base. */
+    public void confirmar(int secuencia) {
+        int i = secuencia % HISTORIA;
+        if (!validas[i] || secuencias[i] != secuencia) return;
+
+        // Nunca retroceder a una base más vieja (ACKs desordenados)
+        if (hayBase && distancia(secuencia, baseSecuencia) > 0x7FFF) return;
+
+        hayBase = true;
+        baseSecuencia = secuencia;
+        baseX = xs[i];
+        baseY = ys[i];
+    }
+
+    public void escribir(ByteBuffer b, int secuencia, PlayerState ps) {
+        int qx = EstadoCuantizado.cuantizar(ps.x);
+        int qy = EstadoCuantizado.cuantizar(ps.y);
+
+        int distanciaBase = hayBase ? distancia(secuencia, baseSecuencia) : 0;
+        boolean conBase = distanciaBase > 0 && distanciaBase <= EstadoCuantizado.MAX_DISTANCIA_BASE;
+
+        int flags = ps.ducking ? EstadoCuantizado.FLAG_AGACHADO : 0;
+        if (!conBase || qx != baseX) flags |= EstadoCuantizado.FLAG_X;
+        if (!conBase || qy != baseY) flags |= EstadoCuantizado.FLAG_Y;
+
+        Protocolo.escribirCabecera(b, Protocolo.STATE_DELTA, secuencia);
+        b.put((byte) ps.playerId);
+        b.put((byte) (conBase ? distanciaBase : 0));
+        b.put((byte) flags);
+
+        if ((flags & EstadoCuantizado.FLAG_X) != 0) b.putShort((short) qx);
+        if ((flags & EstadoCuantizado.FLAG_Y) != 0) {
+            if (conBase) {
+                EstadoCuantizado.escribirVarint(b, qy - baseY);
+            } else {
+                b.putShort((short) qy);
+            }
+        }
+        b.flip();
+
+        // Recordar lo enviado por si llega su ACK
+        int i = secuencia % HISTORIA;
+        secuencias[i] = secuencia;
+        xs[i] = qx;
+        ys[i] = qy;
+        validas[i] = true;
+    }
+
+    private static int distancia(int nueva, int vieja) {
+        return (nueva - vieja) & 0xFFFF;
+    }
+}
@@ -0,0 +1,9 @@
+package com.dinochrome.game.net;
+
+/** Estado autoritativo del servidor para mi dino, después de aplicar mi entrada "secuencia". */
+public class Correccion {
+    public int secuencia;
+    public float y;
+    public float velY;
+    public boolean enSuelo;
+}
@@ -0,0 +1,121 @@
+package com.dinochrome.game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Lado receptor del STATE_DELTA: reconstruye el estado de cada jugador a partir
+ * de la instantánea base que el emisor indica, y recuerda la última recibida de
+ * cada uno para confirmarla con ACK.
+ */
+public final class DescompresorEstado {
+
+    public static final int MAX_IDS = 32;
+
+    private static final int HISTORIA = EstadoCuantizado.MAX_DISTANCIA_BASE;
+
+    // [id][secuencia % HISTORIA]
+    private final int[][] secuencias = new int[MAX_IDS][HISTORIA];
+    private final int[][] xs = new int[MAX_IDS][HISTORIA];
+    private final int[][] ys = new int[MAX_IDS][HISTORIA];
+    private final boolean[][] validas = new boolean[MAX_IDS][HISTORIA];
+
+    private final int[] ultimas = new int[MAX_IDS];
+    private final boolean[] hayUltima = new boolean[MAX_IDS];
+
+    // Bit por id con instantáneas nuevas sin confirmar todavía
+    private int pendientesDeAck = 0;
+
+    public void reiniciar() {
+        for (int id = 0; id < MAX_IDS; id++) reiniciar(id);
+        pendientesDeAck = 0;
+    }
+
+    /**
+     * Olvida todo lo de ese id: al reusarlo, el jugador nuevo numera desde cero
+     * y sus paquetes no se descartan por viejos contra la historia del anterior.
+     */
+    public void reiniciar(int id) {
+        for (int i = 0; i < HISTORIA; i++) validas[id][i] = false;
+        hayUltima[id] = false;
+        ultimas[id] = 0;
+        pendientesDeAck &= ~(1 << id);
+    }
+
+    /**
+     * Decodifica el STATE_DELTA en destino. Devuelve false si el paquete está
+     * cortado, si la base que usa ya no está en la historia, o si es más viejo
+     * que el último de ese jugador (el estado no se reordena: gana el último).
+     */
+    public boolean leer(ByteBuffer b, PlayerState destino) {
+        int inicio = b.position();
+        try {
+            if (b.remaining() < Protocolo.TAM_CABECERA + 3) return false;
+
+            int secuencia = Protocolo.leerSecuencia(b);
+            b.position(inicio + Protocolo.TAM_CABECERA);
+
+            int id = b.get() & 0xFF;
+            int distanciaBase = b.get() & 0xFF;
+            int flags = b.get();
+            if (id >= MAX_IDS) return false;
+            int adelante = (secuencia - ultimas[id]) & 0xFFFF;
+            if (hayUltima[id] && (adelante == 0 || adelante >= 0x8000)) return false;
+
+            int qx;
+            int qy;
+
+            if (distanciaBase == 0) {
+                if (b.remaining() < 4) return false;
+                qx = b.getShort() & 0xFFFF;
+                qy = b.getShort() & 0xFFFF;
+            } else {
+                int baseSecuencia = (secuencia - distanciaBase) & 0xFFFF;
+                int j = baseSecuencia % HISTORIA;
+                if (!validas[id][j] || secuencias[id][j] != baseSecuencia) return false;
+
+                qx = xs[id][j];
+                qy = ys[id][j];
+
+                if ((flags & EstadoCuantizado.FLAG_X) != 0) {
+                    if (b.remaining() < 2) return false;
+                    qx = b.getShort() & 0xFFFF;
+                }
+                if ((flags & EstadoCuantizado.FLAG_Y) != 0) {
+                    int delta = EstadoCuantizado.leerVarint(b);
+                    if (delta == Integer.MIN_VALUE) return false;
+                    qy += delta;
+                }
+            }
+
+            int i = secuencia % HISTORIA;
+            secuencias[id][i] = secuencia;
+            xs[id][i] = qx;
+            ys[id][i] = qy;
+            validas[id][i] = true;
+
+            ultimas[id] = secuencia;
+            hayUltima[id] = true;
+            pendientesDeAck |= 1 << id;
+
+            destino.playerId = id;
+            destino.x = EstadoCuantizado.reconstruir(qx);
+            destino.y = EstadoCuantizado.reconstruir(qy);
+            destino.ducking = (flags & EstadoCuantizado.FLAG_AGACHADO) != 0;
+            return true;
+
+        } finally {
+            b.position(inicio);
+        }
+    }
+
+    /** Ids con instantáneas nuevas para confirmar; limpia la marca. */
+    public int tomarPendientesDeAck() {
+        int p = pendientesDeAck;
+        pendientesDeAck = 0;
+        return p;
+    }
+
+    public int getUltimaSecuencia(int id) {
+        return ultimas[id];
+    }
+}
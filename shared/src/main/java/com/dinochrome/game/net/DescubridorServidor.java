@@ -0,0 +1,231 @@
+package com.dinochrome.game.net;
+
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Busca servidores en la LAN sin trabar a nadie.
+ *
+ * En cada ronda manda "BUSCAR_SERVIDOR" a todos los destinos de una vez (el
+ * último servidor conocido por unicast, el broadcast de cada interfaz y el
+ * global) desde un solo socket, y junta a todos los que contestan con su RTT.
+ * Termina apenas contesta el conocido, un rato después del primero que aparece
+ * (para dar tiempo a que contesten los demás y quedarse con el mejor), o al
+ * agotar las rondas.
+ *
+ * El mejor es el que habla nuestra versión del protocolo binario y, entre
+ * esos, el de menor RTT.
+ *
+ * iniciar() corre en un hilo propio y avisa por Escucha (desde ese hilo);
+ * buscar() hace lo mismo en el hilo que llama.
+ */
+public final class DescubridorServidor {
+
+    public static final int PUERTO = 4321;
+
+    private static final int RONDAS = 6;
+    private static final long INTERVALO_RONDA_NS = 250_000_000L;
+    // Desde la primera respuesta: lo que se espera a que contesten los demás
+    private static final long GRACIA_NS = 150_000_000L;
+
+    private static final byte[] CONSULTA = "BUSCAR_SERVIDOR".getBytes(StandardCharsets.UTF_8);
+
+    /** Un servidor que contestó. */
+    public static final class Servidor {
+        public final InetSocketAddress direccion;
+        public final boolean binario;   // habla Protocolo.VERSION; si no, texto
+        public final float rttMillis;
+
+        Servidor(InetSocketAddress direccion, boolean binario, float rttMillis) {
+            this.direccion = direccion;
+            this.binario = binario;
+            this.rttMillis = rttMillis;
+        }
+    }
+
+    /** Avisos de la búsqueda asíncrona (llegan desde el hilo del descubridor). */
+    public interface Escucha {
+        /** fraccion de 0 a 1 de las rondas hechas, y cuántos contestaron hasta ahora. */
+        void progreso(float fraccion, int encontrados);
+
+        /** El elegido, o null si no contestó nadie (o se canceló). */
+        void terminado(Servidor elegido);
+    }
+
+    private final int puerto;
+    private final InetSocketAddress conocido;
+    private final boolean soloConocido;
+
+    private final ArrayList<Servidor> encontrados = new ArrayList<>();
+    private volatile boolean cancelado = false;
+
+    /** @param conocido último servidor que anduvo (se prueba primero por unicast), o null */
+    public DescubridorServidor(int puerto, InetSocketAddress conocido) {
+        this(puerto, conocido, false);
+    }
+
+    private DescubridorServidor(int puerto, InetSocketAddress conocido, boolean soloConocido) {
+        this.puerto = puerto;
+        this.conocido = conocido;
+        this.soloConocido = soloConocido;
+    }
+
+    /** Pregunta sólo a esa dirección (sin broadcast): null si no contesta. */
+    public static Servidor consultar(InetSocketAddress servidor) {
+        return new DescubridorServidor(servidor.getPort(), servidor, true).buscar();
+    }
+
+    // -------------------------
+    // API
+    // -------------------------
+
+    /** Busca en un hilo aparte; el resultado llega por escucha.terminado(). */
+    public void iniciar(Escucha escucha) {
+        Thread t = new Thread(() -> escucha.terminado(buscar(escucha)), "Descubridor");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /** Bloquea hasta terminar (ver la clase). */
+    public Servidor buscar() {
+        return buscar(null);
+    }
+
+    /** Corta la búsqueda en curso: termina con null dentro de unos milisegundos. */
+    public void cancelar() {
+        cancelado = true;
+    }
+
+    /** Todos los que contestaron en la última búsqueda. */
+    public synchronized ArrayList<Servidor> getEncontrados() {
+        return new ArrayList<>(encontrados);
+    }
+
+    // -------------------------
+    // Búsqueda
+    // -------------------------
+    private Servidor buscar(Escucha escucha) {
+        synchronized (this) {
+            encontrados.clear();
+        }
+
+        try (DatagramSocket socket = new DatagramSocket()) {
+            socket.setBroadcast(true);
+            ArrayList<InetSocketAddress> destinos = destinos();
+            byte[] respuesta = new byte[256];
+            DatagramPacket paquete = new DatagramPacket(respuesta, respuesta.length);
+
+            long limite = Long.MAX_VALUE;
+
+            for (int ronda = 0; ronda < RONDAS && !cancelado; ronda++) {
+                long envio = System.nanoTime();
+                for (InetSocketAddress d : destinos) {
+                    try {
+                        socket.send(new DatagramPacket(CONSULTA, CONSULTA.length, d));
+                    } catch (Exception ignored) {
+                        // interfaz caída o broadcast no permitido: siguen los demás
+                    }
+                }
+
+                long finRonda = envio + INTERVALO_RONDA_NS;
+                while (!cancelado) {
+                    long ahora = System.nanoTime();
+                    long espera = Math.min(finRonda, limite) - ahora;
+                    if (espera <= 0) break;
+
+                    socket.setSoTimeout((int) Math.max(1, espera / 1_000_000L));
+                    paquete.setLength(respuesta.length);
+                    try {
+                        socket.receive(paquete);
+                    } catch (SocketTimeoutException timeout) {
+                        continue;
+                    }
+
+                    ahora = System.nanoTime();
+                    Servidor s = leerRespuesta(paquete, (ahora - envio) / 1_000_000f);
+                    if (s == null) continue;
+
+                    anotar(s);
+                    if (conocido != null && s.direccion.equals(conocido)) return s;
+                    if (limite == Long.MAX_VALUE) limite = ahora + GRACIA_NS;
+                }
+
+                if (escucha != null) escucha.progreso((ronda + 1f) / RONDAS, cantidad());
+                if (System.nanoTime() - limite >= 0) break;
+            }
+
+        } catch (Exception e) {
+            // sin red: se devuelve lo que se haya encontrado
+        }
+
+        return cancelado ? null : mejor();
+    }
+
+    private ArrayList<InetSocketAddress> destinos() throws SocketException, UnknownHostException {
+        ArrayList<InetSocketAddress> destinos = new ArrayList<>();
+        if (conocido != null) destinos.add(conocido);
+        if (soloConocido) return destinos;
+
+        for (NetworkInterface ni : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            if (!ni.isUp() || ni.isLoopback()) continue;
+
+            for (InterfaceAddress ia : ni.getInterfaceAddresses()) {
+                InetAddress bcast = ia.getBroadcast();
+                if (bcast != null) destinos.add(new InetSocketAddress(bcast, puerto));
+            }
+        }
+
+        // Broadcast global (a veces sirve, a veces no)
+        destinos.add(new InetSocketAddress(InetAddress.getByName("255.255.255.255"), puerto));
+        return destinos;
+    }
+
+    // "SERVIDOR_AQUI" (servidor viejo, texto) o "SERVIDOR_AQUI;bin=<version>"
+    private static Servidor leerRespuesta(DatagramPacket p, float rttMillis) {
+        String msg = new String(p.getData(), 0, p.getLength(), StandardCharsets.UTF_8).trim();
+        if (!msg.equals("SERVIDOR_AQUI") && !msg.startsWith("SERVIDOR_AQUI;")) return null;
+
+        boolean binario = false;
+        int i = msg.indexOf("bin=");
+        if (i != -1) {
+            int fin = msg.indexOf(';', i);
+            if (fin == -1) fin = msg.length();
+            try {
+                binario = Integer.parseInt(msg.substring(i + "bin=".length(), fin)) == Protocolo.VERSION;
+            } catch (NumberFormatException ignored) {
+                // versión ilegible: se le habla en texto
+            }
+        }
+
+        return new Servidor(new InetSocketAddress(p.getAddress(), p.getPort()), binario, rttMillis);
+    }
+
+    // El mismo servidor contesta una vez por ronda y por cada destino que lo alcanza: se queda el menor RTT
+    private synchronized void anotar(Servidor s) {
+        for (int i = 0; i < encontrados.size(); i++) {
+            Servidor otro = encontrados.get(i);
+            if (!otro.direccion.equals(s.direccion)) continue;
+            if (s.rttMillis < otro.rttMillis) encontrados.set(i, s);
+            return;
+        }
+        encontrados.add(s);
+    }
+
+    private synchronized int cantidad() {
+        return encontrados.size();
+    }
+
+    private synchronized Servidor mejor() {
+        Servidor mejor = null;
+        for (Servidor s : encontrados) {
+            if (mejor == null
+                || (s.binario && !mejor.binario)
+                || (s.binario == mejor.binario && s.rttMillis < mejor.rttMillis)) {
+                mejor = s;
+            }
+        }
+        return mejor;
+    }
+}
@@ -0,0 +1,53 @@
+package com.dinochrome.game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Formato del STATE_DELTA, compartido por CompresorEstado y DescompresorEstado.
+ *
+ * Posiciones en punto fijo de 1/16 px (u16: alcanza para 4096 px, el mundo mide 800x240).
+ * Cuerpo: [id][base][flags] + x u16 si cambió + y (u16 absoluta o varint zigzag contra la base).
+ * "base" es cuántas secuencias atrás está la instantánea confirmada (0 = sin base, todo absoluto).
+ */
+final class EstadoCuantizado {
+
+    static final int ESCALA = 16;
+    static final int MAX_DISTANCIA_BASE = 64;
+
+    static final int FLAG_AGACHADO = 1;
+    static final int FLAG_X = 2;
+    static final int FLAG_Y = 4;
+
+    private EstadoCuantizado() {}
+
+    static int cuantizar(float v) {
+        int q = Math.round(v * ESCALA);
+        if (q < 0) return 0;
+        return Math.min(q, 0xFFFF);
+    }
+
+    static float reconstruir(int q) {
+        return q / (float) ESCALA;
+    }
+
+    static void escribirVarint(ByteBuffer b, int delta) {
+        int v = (delta << 1) ^ (delta >> 31);   // zigzag: chicos en valor absoluto -> pocos bytes
+        while ((v & ~0x7F) != 0) {
+            b.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        b.put((byte) v);
+    }
+
+    /** Lee un varint avanzando la posición. Devuelve Integer.MIN_VALUE si el paquete está cortado. */
+    static int leerVarint(ByteBuffer b) {
+        int v = 0;
+        for (int corrimiento = 0; corrimiento < 32; corrimiento += 7) {
+            if (!b.hasRemaining()) return Integer.MIN_VALUE;
+            int c = b.get();
+            v |= (c & 0x7F) << corrimiento;
+            if ((c & 0x80) == 0) return (v >>> 1) ^ -(v & 1);
+        }
+        return Integer.MIN_VALUE;
+    }
+}
@@ -0,0 +1,11 @@
+package com.dinochrome.game.net;
+
+public class EstadoObstaculo {
+    public int id;     // único dentro de la sala, crece con cada obstáculo
+    public float x;    // dónde estaba al terminar el tick "tick"
+    public float y;
+    public float width;
+    public float height;
+    public int type; // 0 = cactus, 1 = ptero
+    public int tick;   // tick del servidor (desde el START) en que apareció; -1 si no se sabe
+}
@@ -0,0 +1,546 @@
+// =====================================================
+// ARCHIVO: GameClient.java
+// PAQUETE: com.dinochrome.game.net
+// =====================================================
+package com.dinochrome.game.net;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class GameClient {
+
+    // Cada cuánto corre la tarea periódica del hilo de red
+    // (corto para que los reenvíos de control respeten el timeout medido)
+    private static final long PERIODO_TAREA_MS = 20;
+    private static final long REINTENTO_JOIN_NS = 500_000_000L;
+    private static final long ACK_ESTADOS_NS = 250_000_000L;
+    private static final long KEEPALIVE_NS = 1_000_000_000L;
+
+    // PING: ráfaga corta al conectar para sincronizar rápido, después uno por segundo
+    private static final long PING_RAFAGA_NS = 100_000_000L;
+    private static final long PING_NS = 1_000_000_000L;
+    private static final int MUESTRAS_RAFAGA = 5;
+
+    private final Transporte transporte;
+
+    // Protocolo: binario si el servidor lo anuncia al responder el broadcast,
+    // texto ("KEY=value;") si es un servidor viejo.
+    private final boolean protocoloBinario;
+
+    // Envío binario: un solo buffer reutilizado (lo comparten el hilo de render y el de red)
+    private final ByteBuffer bufferEnvio;
+    private int secuenciaEnvio = 0;
+
+    // STATE_DELTA: mi estado contra la última base confirmada, y el de los demás
+    // reconstruido contra la que indica el servidor
+    private final CompresorEstado compresor = new CompresorEstado();
+    private final DescompresorEstado descompresor = new DescompresorEstado();
+
+    // Control (JOIN, READY, ASSIGN, COUNT, START, FIN) confiable y en orden; sólo binario.
+    // Se usa con el lock de bufferEnvio, desde los dos hilos.
+    private final CanalFiable fiable = new CanalFiable();
+
+    // OBST repetidos o desordenados: cada id llega una sola vez a la pantalla (sólo hilo de red)
+    private final VentanaIds obstaculosVistos = new VentanaIds();
+    private boolean unionEnviada = false;
+
+    // Sala que se pide en el JOIN (0 = la que asigne el servidor)
+    private final int salaPedida;
+
+    // Tiempos para la tarea periódica
+    private long proximoJoin = 0;
+    private long proximoAckEstados = 0;
+    private volatile long ultimoEnvio = 0;
+
+    // Estado público que usa la pantalla
+    public volatile int myId = 0;
+    public volatile int sala = 0;
+    public volatile int playerCount = 0;
+    public volatile boolean ready = false;
+
+    // STATE, OBST y START hacia la pantalla: la llena el hilo de red y
+    // la pantalla la vacía una vez por frame.
+    public final ColaEventos eventos = new ColaEventos(256);
+
+    // Reloj del servidor, RTT y jitter (sólo binario: el protocolo de texto no tiene PING)
+    public final RelojRed reloj = new RelojRed(Protocolo.TICK_HZ_SERVIDOR);
+    private long proximoPing = 0;
+
+    /** Busca por broadcast y bloquea hasta encontrar (mejor usar DescubridorServidor aparte). */
+    public GameClient() {
+        this(buscar(null), 0);
+    }
+
+    public GameClient(InetSocketAddress servidor) {
+        this(servidor, 0);
+    }
+
+    /**
+     * Con servidor != null se conecta directo a esa dirección, sin broadcast
+     * (servidor en la misma máquina, pruebas de integración, pruebas de carga).
+     * Con sala != 0 pide entrar a esa sala puntual en vez de a cualquiera.
+     */
+    public GameClient(InetSocketAddress servidor, int sala) {
+        this(buscar(servidor), sala);
+    }
+
+    /**
+     * Con un servidor que ya contestó (DescubridorServidor): no pregunta nada,
+     * sólo abre el transporte. No bloquea.
+     */
+    public GameClient(DescubridorServidor.Servidor servidor, int sala) {
+        this(abrirTransporte(servidor.direccion), servidor.binario, sala);
+    }
+
+    /** Sobre un transporte ya abierto (las pruebas pasan uno sin red). */
+    GameClient(Transporte transporte, boolean binario, int sala) {
+        this.transporte = transporte;
+        this.salaPedida = sala;
+        this.protocoloBinario = binario;
+        bufferEnvio = transporte.crearBuffer(Protocolo.TAM_MAX);
+
+        // Un solo hilo de red: recepción + reintentos de JOIN + keepalive
+        proximoJoin = System.nanoTime();
+        ultimoEnvio = proximoJoin;
+        transporte.iniciar(this::recibir, this::tareaPeriodica, PERIODO_TAREA_MS);
+    }
+
+    private static DescubridorServidor.Servidor buscar(InetSocketAddress servidor) {
+        DescubridorServidor.Servidor s = (servidor == null)
+            ? new DescubridorServidor(DescubridorServidor.PUERTO, null).buscar()
+            : DescubridorServidor.consultar(servidor);
+
+        if (s == null) {
+            throw new RuntimeException(servidor == null
+                ? "No se encontró servidor (broadcast)"
+                : "El servidor no responde: " + servidor);
+        }
+        return s;
+    }
+
+    // Canal NIO, o el socket clásico si no se puede
+    private static Transporte abrirTransporte(InetSocketAddress servidor) {
+        try {
+            return new TransporteCanal(servidor);
+        } catch (Exception e) {
+            try {
+                return new TransporteSocket(servidor);
+            } catch (Exception e2) {
+                throw new RuntimeException(e2);
+            }
+        }
+    }
+
+    // -------------------------
+    // Tarea periódica (hilo de red)
+    // -------------------------
+    private void tareaPeriodica(long ahora) {
+        if (protocoloBinario) {
+            // El JOIN sale una vez: si se pierde lo reenvía el canal confiable
+            if (!unionEnviada) {
+                enviarUnion();
+                unionEnviada = true;
+            }
+            reenviarControlVencido(ahora);
+        } else if (myId == 0) {
+            // Texto: sin confirmaciones, se reintenta a ciegas hasta tener id
+            if (ahora - proximoJoin >= 0) {
+                enviarUnion();
+                proximoJoin = ahora + REINTENTO_JOIN_NS;
+            }
+        }
+
+        if (myId == 0) return;
+
+        if (protocoloBinario && ahora - proximoPing >= 0) {
+            enviarPing(ahora);
+            proximoPing = ahora + (reloj.getMuestras() < MUESTRAS_RAFAGA ? PING_RAFAGA_NS : PING_NS);
+        }
+
+        // Confirmar los STATE_DELTA recibidos, así el servidor puede usarlos de base
+        if (ahora - proximoAckEstados >= 0) {
+            confirmarEstadosRecibidos();
+            proximoAckEstados = ahora + ACK_ESTADOS_NS;
+        }
+
+        // Keepalive: si hace rato que no mandamos nada, que el servidor sepa que seguimos
+        if (ahora - ultimoEnvio >= KEEPALIVE_NS) {
+            enviarControl(Protocolo.ALIVE, "ALIVE");
+        }
+    }
+
+    // -------------------------
+    // API
+    // -------------------------
+    public void sendReady() {
+        ready = true;
+        enviarControl(Protocolo.READY, "READY");
+    }
+
+    public void send(PlayerState estado) {
+        if (protocoloBinario) {
+            synchronized (bufferEnvio) {
+                compresor.escribir(bufferEnvio, siguienteSecuencia(), estado);
+                enviarBinario();
+            }
+            return;
+        }
+
+        String msg = "STATE;id=" + estado.playerId
+            + ";x=" + estado.x
+            + ";y=" + estado.y
+            + ";duck=" + (estado.ducking ? 1 : 0);
+        enviarTexto(msg);
+    }
+
+    /**
+     * Manda las últimas entradas sin confirmar para que el servidor las simule.
+     * Sólo existe en el protocolo binario: un servidor de texto no corrige nada
+     * y la predicción local queda como única fuente.
+     */
+    public void sendInputs(int playerId, Prediccion prediccion) {
+        if (!protocoloBinario || prediccion.getPendientes() == 0) return;
+
+        synchronized (bufferEnvio) {
+            Protocolo.escribirEntradas(bufferEnvio, siguienteSecuencia(), playerId, prediccion);
+            enviarBinario();
+        }
+    }
+
+    public void cerrar() {
+        transporte.cerrar();
+    }
+
+    /** Habla el protocolo binario: el servidor adjudica los choques y avisa el fin con FIN. */
+    public boolean isBinario() {
+        return protocoloBinario;
+    }
+
+    // -------------------------
+    // Recepción
+    // -------------------------
+    private static final byte[] TXT_ASSIGN = LectorTexto.ascii("ASSIGN;");
+    private static final byte[] TXT_COUNT = LectorTexto.ascii("COUNT;");
+    private static final byte[] TXT_START = LectorTexto.ascii("START");
+    private static final byte[] TXT_STATE = LectorTexto.ascii("STATE;");
+    private static final byte[] TXT_OBST = LectorTexto.ascii("OBST;");
+    private static final byte[] TXT_FIN = LectorTexto.ascii("FIN;");
+
+    private static final byte[] CLAVE_ID = LectorTexto.ascii("id=");
+    private static final byte[] CLAVE_SALA = LectorTexto.ascii("sala=");
+    private static final byte[] CLAVE_PLAYERS = LectorTexto.ascii("players=");
+    private static final byte[] CLAVE_X = LectorTexto.ascii("x=");
+    private static final byte[] CLAVE_Y = LectorTexto.ascii("y=");
+    private static final byte[] CLAVE_W = LectorTexto.ascii("w=");
+    private static final byte[] CLAVE_H = LectorTexto.ascii("h=");
+    private static final byte[] CLAVE_T = LectorTexto.ascii("t=");
+    private static final byte[] CLAVE_TICK = LectorTexto.ascii("tick=");
+    private static final byte[] CLAVE_DUCK = LectorTexto.ascii("duck=");
+    private static final byte[] CLAVE_GANADOR = LectorTexto.ascii("ganador=");
+
+    // Copia para el protocolo de texto (el buffer del canal es directo, sin array)
+    private final byte[] bytesTexto = new byte[2048];
+
+    private void recibir(ByteBuffer datos) {
+        if (Protocolo.esBinario(datos)) {
+            procesarBinario(datos);
+            return;
+        }
+
+        int largo = Math.min(datos.remaining(), bytesTexto.length);
+        datos.get(bytesTexto, 0, largo);
+        procesar(bytesTexto, largo);
+    }
+
+    private void procesarBinario(ByteBuffer datos) {
+        int tipo = Protocolo.leerTipo(datos);
+        if (tipo < 0) return;   // versión distinta
+
+        synchronized (bufferEnvio) {
+            fiable.procesarAcks(datos, System.nanoTime());
+
+            if (Protocolo.esFiable(tipo)) {
+                fiable.recibir(datos);
+                for (ByteBuffer m = fiable.entregar(); m != null; m = fiable.entregar()) {
+                    procesarMensaje(m);
+                }
+
+                // Confirmar ya, sin esperar a que salga otro paquete
+                if (fiable.hayAckPendiente()) {
+                    Protocolo.escribirControl(bufferEnvio, Protocolo.ALIVE, siguienteSecuencia());
+                    enviarBinario();
+                }
+                return;
+            }
+        }
+
+        procesarMensaje(datos);
+    }
+
+    private void procesarMensaje(ByteBuffer datos) {
+        switch (Protocolo.leerTipo(datos)) {
+            case Protocolo.ASSIGN: {
+                int id = Protocolo.leerByte(datos);
+                if (id > 0) {
+                    asignar(id, Protocolo.leerSalaAsignacion(datos));
+                }
+                break;
+            }
+            case Protocolo.COUNT: {
+                int c = Protocolo.leerByte(datos);
+                if (c >= 0) playerCount = c;
+                break;
+            }
+            case Protocolo.START: {
+                long inicio = Protocolo.leerInicio(datos);
+                if (inicio != Long.MIN_VALUE) reloj.setInicioPartida(inicio);
+                iniciar();
+                break;
+            }
+            case Protocolo.PONG:
+                if (datos.remaining() >= Protocolo.TAM_PONG) {
+                    reloj.muestra(Protocolo.leerReloj(datos, 0), Protocolo.leerReloj(datos, 1),
+                        Protocolo.leerReloj(datos, 2), System.nanoTime());
+                }
+                break;
+            case Protocolo.STATE: {
+                ColaEventos.Evento e = eventos.reservar();
+                if (e != null && Protocolo.leerEstado(datos, e.jugador)) publicar(e, ColaEventos.ESTADO);
+                break;
+            }
+            case Protocolo.STATE_DELTA: {
+                ColaEventos.Evento e = eventos.reservar();
+                if (e != null && descompresor.leer(datos, e.jugador)) publicar(e, ColaEventos.ESTADO);
+                break;
+            }
+            case Protocolo.ACK: {
+                // Confirmación de mi propio STATE_DELTA
+                int confirmada = Protocolo.leerAck(datos);
+                if (confirmada >= 0 && Protocolo.leerByte(datos) == myId) {
+                    synchronized (bufferEnvio) {
+                        compresor.confirmar(confirmada);
+                    }
+                }
+                break;
+            }
+            case Protocolo.CORR: {
+                ColaEventos.Evento e = eventos.reservar();
+                if (e != null && Protocolo.leerCorreccion(datos, e.correccion)) publicar(e, ColaEventos.CORRECCION);
+                break;
+            }
+            case Protocolo.OBST: {
+                ColaEventos.Evento e = eventos.reservar();
+                if (e != null && Protocolo.leerObstaculo(datos, e.obstaculo) && obstaculosVistos.marcar(e.obstaculo.id)) {
+                    publicar(e, ColaEventos.OBSTACULO);
+                }
+                break;
+            }
+            case Protocolo.FIN: {
+                int ganador = Protocolo.leerByte(datos);
+                if (ganador >= 0) terminar(ganador);
+                break;
+            }
+            default:
+                // ALIVE (sólo traía confirmaciones) o tipo desconocido
+                break;
+        }
+    }
+
+    private void procesar(byte[] d, int largo) {
+        int ini = LectorTexto.inicio(d, largo);
+        int fin = LectorTexto.fin(d, ini, largo);
+
+        if (LectorTexto.empiezaCon(d, ini, fin, TXT_ASSIGN)) {
+            int id = LectorTexto.leerEntero(d, ini, fin, CLAVE_ID);
+            if (id != LectorTexto.SIN_VALOR) {
+                int s = LectorTexto.leerEntero(d, ini, fin, CLAVE_SALA);
+                asignar(id, (s == LectorTexto.SIN_VALOR) ? 0 : s);
+            }
+            return;
+        }
+
+        if (LectorTexto.empiezaCon(d, ini, fin, TXT_COUNT)) {
+            int c = LectorTexto.leerEntero(d, ini, fin, CLAVE_PLAYERS);
+            if (c != LectorTexto.SIN_VALOR) playerCount = c;
+            return;
+        }
+
+        if (LectorTexto.esIgual(d, ini, fin, TXT_START)) {
+            iniciar();
+            return;
+        }
+
+        if (LectorTexto.empiezaCon(d, ini, fin, TXT_STATE)) {
+            ColaEventos.Evento e = eventos.reservar();
+            if (e != null && parsearPlayerState(d, ini, fin, e.jugador)) publicar(e, ColaEventos.ESTADO);
+            return;
+        }
+
+        if (LectorTexto.empiezaCon(d, ini, fin, TXT_OBST)) {
+            ColaEventos.Evento e = eventos.reservar();
+            if (e != null && parsearObstaculo(d, ini, fin, e.obstaculo)) {
+                // Un servidor viejo no manda id: sin id no hay cómo filtrar repetidos
+                if (e.obstaculo.id == LectorTexto.SIN_VALOR || obstaculosVistos.marcar(e.obstaculo.id)) {
+                    publicar(e, ColaEventos.OBSTACULO);
+                }
+            }
+            return;
+        }
+
+        if (LectorTexto.empiezaCon(d, ini, fin, TXT_FIN)) {
+            int ganador = LectorTexto.leerEntero(d, ini, fin, CLAVE_GANADOR);
+            if (ganador != LectorTexto.SIN_VALOR) terminar(ganador);
+        }
+    }
+
+    // Los ids de obstáculo crecen dentro de una sala (entre partidas también): sólo
+    // se empieza de cero al cambiar de sala, no con cada ASSIGN repetido
+    private void asignar(int id, int nuevaSala) {
+        if (nuevaSala != sala || myId == 0) obstaculosVistos.reiniciar();
+        sala = nuevaSala;
+        myId = id;
+    }
+
+    private void iniciar() {
+        ColaEventos.Evento e = eventos.reservar();
+        if (e != null) publicar(e, ColaEventos.INICIO);
+    }
+
+    // El servidor adjudicó el choque: ready vuelve a false para la revancha
+    private void terminar(int ganador) {
+        ready = false;
+        ColaEventos.Evento e = eventos.reservar();
+        if (e == null) return;
+        e.ganador = ganador;
+        publicar(e, ColaEventos.FIN);
+    }
+
+    // Los datos ya se parsearon directo dentro del casillero reservado
+    private void publicar(ColaEventos.Evento e, int tipo) {
+        e.tipo = tipo;
+        e.recibidoNanos = System.nanoTime();
+        eventos.publicar();
+    }
+
+    // -------------------------
+    // Parseos
+    // -------------------------
+    private boolean parsearPlayerState(byte[] d, int ini, int fin, PlayerState ps) {
+        int id = LectorTexto.leerEntero(d, ini, fin, CLAVE_ID);
+        float x = LectorTexto.leerFloat(d, ini, fin, CLAVE_X);
+        float y = LectorTexto.leerFloat(d, ini, fin, CLAVE_Y);
+        int duck = LectorTexto.leerEntero(d, ini, fin, CLAVE_DUCK);
+
+        if (id == LectorTexto.SIN_VALOR || Float.isNaN(x) || Float.isNaN(y) || duck == LectorTexto.SIN_VALOR) {
+            return false;
+        }
+
+        ps.playerId = id;
+        ps.x = x;
+        ps.y = y;
+        ps.ducking = (duck == 1);
+        return true;
+    }
+
+    private boolean parsearObstaculo(byte[] d, int ini, int fin, EstadoObstaculo o) {
+        float x = LectorTexto.leerFloat(d, ini, fin, CLAVE_X);
+        float y = LectorTexto.leerFloat(d, ini, fin, CLAVE_Y);
+        float w = LectorTexto.leerFloat(d, ini, fin, CLAVE_W);
+        float h = LectorTexto.leerFloat(d, ini, fin, CLAVE_H);
+        int t = LectorTexto.leerEntero(d, ini, fin, CLAVE_T);
+        int tick = LectorTexto.leerEntero(d, ini, fin, CLAVE_TICK);
+
+        if (Float.isNaN(x) || Float.isNaN(y) || Float.isNaN(w) || Float.isNaN(h) || t == LectorTexto.SIN_VALOR) {
+            return false;
+        }
+
+        o.id = LectorTexto.leerEntero(d, ini, fin, CLAVE_ID);
+        o.tick = (tick == LectorTexto.SIN_VALOR) ? -1 : tick;
+        o.x = x;
+        o.y = y;
+        o.width = w;
+        o.height = h;
+        o.type = t;
+        return true;
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+    private int siguienteSecuencia() {
+        secuenciaEnvio = (secuenciaEnvio + 1) & 0xFFFF;
+        return secuenciaEnvio;
+    }
+
+    // En texto, sin sala pedida el JOIN queda como siempre: así lo entiende un servidor viejo
+    private void enviarUnion() {
+        if (!protocoloBinario) {
+            enviarTexto(salaPedida == 0 ? "JOIN" : "JOIN;sala=" + salaPedida);
+            return;
+        }
+        synchronized (bufferEnvio) {
+            Protocolo.escribirUnion(bufferEnvio, siguienteSecuencia(), salaPedida);
+            // Ventana llena: queda en espera y lo manda reenviarControlVencido()
+            if (fiable.registrar(bufferEnvio, System.nanoTime())) enviarBinario();
+        }
+    }
+
+    private void enviarControl(byte tipo, String texto) {
+        if (!protocoloBinario) {
+            enviarTexto(texto);
+            return;
+        }
+        synchronized (bufferEnvio) {
+            Protocolo.escribirControl(bufferEnvio, tipo, siguienteSecuencia());
+            if (Protocolo.esFiable(tipo) && !fiable.registrar(bufferEnvio, System.nanoTime())) return;
+            enviarBinario();
+        }
+    }
+
+    // Hilo de red: reenviar sólo el control que no se confirmó a tiempo (y mandar el que esperaba lugar)
+    private void reenviarControlVencido(long ahora) {
+        synchronized (bufferEnvio) {
+            for (ByteBuffer r = fiable.vencido(ahora); r != null; r = fiable.vencido(ahora)) {
+                transporte.enviar(r);
+                ultimoEnvio = ahora;
+            }
+        }
+    }
+
+    // Hilo de red: el servidor contesta con su reloj (ver RelojRed)
+    private void enviarPing(long ahora) {
+        synchronized (bufferEnvio) {
+            Protocolo.escribirPing(bufferEnvio, siguienteSecuencia(), ahora);
+            enviarBinario();
+        }
+    }
+
+    // Hilo de red: un ACK por jugador con instantáneas nuevas
+    private void confirmarEstadosRecibidos() {
+        int pendientes = descompresor.tomarPendientesDeAck();
+
+        while (pendientes != 0) {
+            int id = Integer.numberOfTrailingZeros(pendientes);
+            pendientes &= pendientes - 1;
+
+            synchronized (bufferEnvio) {
+                Protocolo.escribirAck(bufferEnvio, siguienteSecuencia(), id, descompresor.getUltimaSecuencia(id));
+                enviarBinario();
+            }
+        }
+    }
+
+    // Llamar con el lock de bufferEnvio tomado. Todo paquete lleva las confirmaciones de control.
+    private void enviarBinario() {
+        fiable.sellar(bufferEnvio);
+        transporte.enviar(bufferEnvio);
+        ultimoEnvio = System.nanoTime();
+    }
+
+    private void enviarTexto(String msg) {
+        byte[] data = msg.getBytes(StandardCharsets.UTF_8);
+        transporte.enviar(ByteBuffer.wrap(data));
+        ultimoEnvio = System.nanoTime();
+    }
+}
@@ -0,0 +1,144 @@
+package com.dinochrome.game.net;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parseo del protocolo de texto ("KEY=value;") directo sobre los bytes del datagrama.
+ *
+ * Reemplaza a new String + trim + substring + Float.parseFloat: no crea objetos,
+ * así el hilo de recepción no genera basura a 60 mensajes por segundo.
+ * Los valores faltantes o mal formados se devuelven como SIN_VALOR / Float.NaN.
+ */
+final class LectorTexto {
+
+    static final int SIN_VALOR = Integer.MIN_VALUE;
+
+    private LectorTexto() {}
+
+    /** Para armar las claves y prefijos una sola vez (constantes). */
+    static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Primer índice sin espacios (equivalente al trim() de la izquierda). */
+    static int inicio(byte[] d, int fin) {
+        int i = 0;
+        while (i < fin && (d[i] & 0xFF) <= ' ') i++;
+        return i;
+    }
+
+    /** Índice final sin espacios (equivalente al trim() de la derecha). */
+    static int fin(byte[] d, int ini, int largo) {
+        int f = largo;
+        while (f > ini && (d[f - 1] & 0xFF) <= ' ') f--;
+        return f;
+    }
+
+    static boolean empiezaCon(byte[] d, int ini, int fin, byte[] prefijo) {
+        if (fin - ini < prefijo.length) return false;
+        for (int i = 0; i < prefijo.length; i++) {
+            if (d[ini + i] != prefijo[i]) return false;
+        }
+        return true;
+    }
+
+    static boolean esIgual(byte[] d, int ini, int fin, byte[] texto) {
+        return fin - ini == texto.length && empiezaCon(d, ini, fin, texto);
+    }
+
+    /**
+     * Busca "clave=" (la clave ya incluye el '=') al comienzo de un campo y
+     * devuelve el índice donde empieza el valor, o -1.
+     */
+    static int buscarValor(byte[] d, int ini, int fin, byte[] clave) {
+        for (int i = ini; i <= fin - clave.length; i++) {
+            if (i > ini && d[i - 1] != ';') continue;
+            if (empiezaCon(d, i, fin, clave)) return i + clave.length;
+        }
+        return -1;
+    }
+
+    static int leerEntero(byte[] d, int ini, int fin, byte[] clave) {
+        int i = buscarValor(d, ini, fin, clave);
+        if (i < 0) return SIN_VALOR;
+
+        boolean negativo = false;
+        if (i < fin && d[i] == '-') {
+            negativo = true;
+            i++;
+        }
+
+        int valor = 0;
+        int digitos = 0;
+        while (i < fin && d[i] != ';') {
+            int c = d[i] - '0';
+            if (c < 0 || c > 9) return SIN_VALOR;
+            valor = valor * 10 + c;
+            digitos++;
+            i++;
+        }
+        if (digitos == 0) return SIN_VALOR;
+        return negativo ? -valor : valor;
+    }
+
+    /** Acepta lo que produce Float.toString: "-12.5", "80.0", "1.0E-4". */
+    static float leerFloat(byte[] d, int ini, int fin, byte[] clave) {
+        int i = buscarValor(d, ini, fin, clave);
+        if (i < 0) return Float.NaN;
+
+        boolean negativo = false;
+        if (i < fin && (d[i] == '-' || d[i] == '+')) {
+            negativo = d[i] == '-';
+            i++;
+        }
+
+        long mantisa = 0;
+        int exponente = 0;
+        int digitos = 0;
+        boolean decimales = false;
+
+        for (; i < fin && d[i] != ';' && d[i] != 'E' && d[i] != 'e'; i++) {
+            byte c = d[i];
+            if (c == '.') {
+                if (decimales) return Float.NaN;
+                decimales = true;
+                continue;
+            }
+            int v = c - '0';
+            if (v < 0 || v > 9) return Float.NaN;
+
+            // Más de 18 dígitos no cambian un float: se ignoran pero cuentan para la escala
+            if (mantisa < 100_000_000_000_000_000L) {
+                mantisa = mantisa * 10 + v;
+                if (decimales) exponente--;
+            } else if (!decimales) {
+                exponente++;
+            }
+            digitos++;
+        }
+        if (digitos == 0) return Float.NaN;
+
+        if (i < fin && (d[i] == 'E' || d[i] == 'e')) {
+            i++;
+            boolean expNegativo = false;
+            if (i < fin && (d[i] == '-' || d[i] == '+')) {
+                expNegativo = d[i] == '-';
+                i++;
+            }
+            int e = 0;
+            int digitosExp = 0;
+            while (i < fin && d[i] != ';') {
+                int v = d[i] - '0';
+                if (v < 0 || v > 9) return Float.NaN;
+                e = e * 10 + v;
+                digitosExp++;
+                i++;
+            }
+            if (digitosExp == 0) return Float.NaN;
+            exponente += expNegativo ? -e : e;
+        }
+
+        double valor = exponente == 0 ? mantisa : mantisa * Math.pow(10, exponente);
+        return (float) (negativo ? -valor : valor);
+    }
+}
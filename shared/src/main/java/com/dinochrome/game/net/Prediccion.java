@@ -0,0 +1,127 @@
+package com.dinochrome.game.net;
+
+import com.dinochrome.game.sim.EstadoDino;
+import com.dinochrome.game.sim.FisicaDino;
+
+/**
+ * Predicción del lado del cliente para mi dino.
+ *
+ * Cada entrada (saltar/agachar + delta) recibe un número de secuencia, se aplica
+ * enseguida sobre "estado" y se guarda en un historial. Cuando el servidor manda
+ * una Correccion para la secuencia N, se parte de su estado, se tiran las entradas
+ * hasta N y se vuelven a aplicar las que él todavía no vio.
+ */
+public final class Prediccion {
+
+    private final int[] secuencias;
+    private final boolean[] saltos;
+    private final boolean[] agachadas;
+    private final float[] deltas;
+
+    // Ring de entradas sin confirmar: "primero" es la más vieja
+    private int primero = 0;
+    private int cantidad = 0;
+
+    private int ultimaSecuencia = 0;
+
+    /** Estado predicho (lo que se dibuja y se envía). */
+    public final EstadoDino estado = new EstadoDino();
+
+    // Métricas
+    private long correcciones = 0;
+    private float ultimoError = 0f;
+
+    public Prediccion(int capacidad) {
+        secuencias = new int[capacidad];
+        saltos = new boolean[capacidad];
+        agachadas = new boolean[capacidad];
+        deltas = new float[capacidad];
+    }
+
+    public void reiniciar() {
+        primero = 0;
+        cantidad = 0;
+        estado.reiniciar();
+    }
+
+    /** Aplica una entrada local y la guarda. Devuelve true si arrancó un salto. */
+    public boolean aplicar(boolean saltar, boolean agachar, float delta) {
+        if (cantidad == secuencias.length) {
+            // Lleno (servidor viejo que nunca confirma): se olvida la más vieja
+            primero = (primero + 1) % secuencias.length;
+            cantidad--;
+        }
+
+        int i = (primero + cantidad) % secuencias.length;
+        secuencias[i] = ++ultimaSecuencia;
+        saltos[i] = saltar;
+        agachadas[i] = agachar;
+        deltas[i] = delta;
+        cantidad++;
+
+        return FisicaDino.avanzar(estado, saltar, agachar, delta);
+    }
+
+    /** Parte del estado del servidor y vuelve a aplicar lo que él todavía no procesó. */
+    public void reconciliar(Correccion c) {
+        // Confirmaciones viejas o repetidas no aportan nada
+        if (cantidad == 0 || c.secuencia < secuencias[primero]) return;
+
+        while (cantidad > 0 && secuencias[primero] <= c.secuencia) {
+            primero = (primero + 1) % secuencias.length;
+            cantidad--;
+        }
+
+        float yPredicha = estado.y;
+
+        estado.y = c.y;
+        estado.velY = c.velY;
+        estado.enSuelo = c.enSuelo;
+
+        for (int k = 0; k < cantidad; k++) {
+            int i = (primero + k) % secuencias.length;
+            FisicaDino.avanzar(estado, saltos[i], agachadas[i], deltas[i]);
+        }
+
+        ultimoError = Math.abs(estado.y - yPredicha);
+        if (ultimoError > 0.01f) correcciones++;
+    }
+
+    // -------------------------
+    // Entradas pendientes (para enviar)
+    // -------------------------
+
+    public int getPendientes() {
+        return cantidad;
+    }
+
+    /** k = 0 es la más vieja sin confirmar. */
+    public int getSecuencia(int k) {
+        return secuencias[(primero + k) % secuencias.length];
+    }
+
+    public boolean getSalto(int k) {
+        return saltos[(primero + k) % secuencias.length];
+    }
+
+    public boolean getAgachada(int k) {
+        return agachadas[(primero + k) % secuencias.length];
+    }
+
+    public float getDelta(int k) {
+        return deltas[(primero + k) % secuencias.length];
+    }
+
+    // -------------------------
+    // Métricas
+    // -------------------------
+
+    /** Reconciliaciones en las que la predicción difería del servidor. */
+    public long getCorrecciones() {
+        return correcciones;
+    }
+
+    public float getUltimoError() {
+        return ultimoError;
+    }
+}
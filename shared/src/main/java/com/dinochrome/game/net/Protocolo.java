@@ -0,0 +1,362 @@
+package com.dinochrome.game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Formato binario de los mensajes UDP.
+ *
+ * Cabecera fija de 10 bytes: [marca|version][tipo][secuencia u16][ack u16][bits ack u32].
+ * El nibble alto del primer byte (0xB_) nunca es ASCII, así que un paquete
+ * binario no se confunde con el protocolo viejo de texto ("KEY=value;").
+ *
+ * ack/bits confirman los mensajes de control del otro lado (ver CanalFiable) y
+ * viajan en todos los paquetes. Los mensajes de control (esFiable) llevan además
+ * su secuencia de control (u16) al principio del cuerpo.
+ *
+ * Todo se escribe y se lee sobre ByteBuffers que el llamador reutiliza:
+ * acá no se crea ningún objeto por paquete.
+ */
+public final class Protocolo {
+
+    public static final int VERSION = 4;
+
+    private static final int MARCA = 0xB0;
+
+    /** Frecuencia del tick del servidor: el tick de un OBST cuenta en estas unidades. */
+    public static final int TICK_HZ_SERVIDOR = 60;
+
+    // -------------------------
+    // Tipos de mensaje
+    // -------------------------
+    public static final byte JOIN = 1;
+    public static final byte READY = 2;
+    public static final byte STATE = 3;
+    public static final byte OBST = 4;
+    public static final byte ASSIGN = 5;
+    public static final byte COUNT = 6;
+    public static final byte START = 7;
+    public static final byte ALIVE = 8;
+    public static final byte INPUT = 9;
+    public static final byte CORR = 10;
+    public static final byte STATE_DELTA = 11;
+    public static final byte ACK = 12;
+    public static final byte FIN = 13;
+    public static final byte PING = 14;
+    public static final byte PONG = 15;
+
+    // -------------------------
+    // Tamaños (bytes)
+    // -------------------------
+    public static final int TAM_CABECERA = 10;
+    public static final int TAM_FIABLE = 2;                                    // secuencia de control
+    public static final int TAM_STATE = TAM_CABECERA + 1 + 4 + 4 + 1;          // id, x, y, flags
+    public static final int TAM_OBST = TAM_CABECERA + 4 + 4 + 4 + 4 + 4 + 1 + 4;   // id, x, y, w, h, tipo, tick
+    public static final int TAM_JOIN = TAM_CABECERA + TAM_FIABLE + 2;          // sala pedida (0 = cualquiera)
+    public static final int TAM_ASSIGN = TAM_CABECERA + TAM_FIABLE + 1 + 2;    // id, sala
+    public static final int TAM_COUNT = TAM_CABECERA + TAM_FIABLE + 1;         // jugadores
+    public static final int TAM_ENTRADA = 4 + 1 + 4;                           // secuencia, flags, delta
+    public static final int TAM_CORR = TAM_CABECERA + 4 + 4 + 4 + 1;           // secuencia, y, velY, flags
+    public static final int TAM_ACK = TAM_CABECERA + 1 + 2;                    // id, secuencia confirmada
+    public static final int TAM_FIN = TAM_CABECERA + TAM_FIABLE + 1;           // ganador (0 = empate)
+    public static final int TAM_START = TAM_CABECERA + TAM_FIABLE + 8;         // reloj del servidor en el tick 0
+    public static final int TAM_PING = TAM_CABECERA + 8;                       // reloj del cliente al enviar
+    public static final int TAM_PONG = TAM_CABECERA + 8 + 8 + 8;               // eco, recibido y enviado (servidor)
+    public static final int MAX_ENTRADAS = 12;                                 // entradas por paquete INPUT
+    public static final int TAM_MAX = 128;
+
+    private static final int FLAG_AGACHADO = 1;
+    private static final int FLAG_SALTO = 2;
+    private static final int FLAG_EN_SUELO = 4;
+
+    private Protocolo() {}
+
+    // -------------------------
+    // Cabecera
+    // -------------------------
+
+    /** true si el paquete empieza con la marca binaria (de cualquier versión). */
+    public static boolean esBinario(ByteBuffer b) {
+        return b.remaining() >= TAM_CABECERA && (b.get(b.position()) & 0xF0) == MARCA;
+    }
+
+    /** Devuelve el tipo del mensaje, o -1 si no es binario o es de otra versión. */
+    public static int leerTipo(ByteBuffer b) {
+        if (!esBinario(b)) return -1;
+        if ((b.get(b.position()) & 0x0F) != VERSION) return -1;
+        return b.get(b.position() + 1);
+    }
+
+    public static int leerSecuencia(ByteBuffer b) {
+        return b.getShort(b.position() + 2) & 0xFFFF;
+    }
+
+    /** Mensajes de control: se entregan confiables y en orden (CanalFiable). */
+    public static boolean esFiable(int tipo) {
+        return tipo == JOIN || tipo == READY || tipo == ASSIGN
+            || tipo == COUNT || tipo == START || tipo == FIN;
+    }
+
+    // Las confirmaciones van en 0: las completa CanalFiable.sellar justo antes de enviar.
+    // Los de control dejan lugar para su secuencia, que pone CanalFiable.registrar.
+    static void escribirCabecera(ByteBuffer b, byte tipo, int secuencia) {
+        b.clear();
+        b.put((byte) (MARCA | VERSION));
+        b.put(tipo);
+        b.putShort((short) secuencia);
+        b.putShort((short) 0);
+        b.putInt(0);
+        if (esFiable(tipo)) b.putShort((short) 0);
+    }
+
+    // Dónde empieza lo propio de cada mensaje
+    private static int cuerpo(ByteBuffer b) {
+        return b.position() + TAM_CABECERA + (esFiable(b.get(b.position() + 1)) ? TAM_FIABLE : 0);
+    }
+
+    // -------------------------
+    // Confirmaciones (absolutas: no mueven la posición)
+    // -------------------------
+    static void escribirAcks(ByteBuffer b, int ack, int bits) {
+        b.putShort(b.position() + 4, (short) ack);
+        b.putInt(b.position() + 6, bits);
+    }
+
+    static int leerAckFiable(ByteBuffer b) {
+        return b.getShort(b.position() + 4) & 0xFFFF;
+    }
+
+    static int leerBitsAck(ByteBuffer b) {
+        return b.getInt(b.position() + 6);
+    }
+
+    static void escribirSecuenciaFiable(ByteBuffer b, int secuencia) {
+        b.putShort(b.position() + TAM_CABECERA, (short) secuencia);
+    }
+
+    static int leerSecuenciaFiable(ByteBuffer b) {
+        return b.getShort(b.position() + TAM_CABECERA) & 0xFFFF;
+    }
+
+    // -------------------------
+    // Escritura (deja el buffer listo para enviar)
+    // -------------------------
+
+    /** Mensajes sin cuerpo: READY, START, ALIVE (y JOIN de clientes sin salas). */
+    public static void escribirControl(ByteBuffer b, byte tipo, int secuencia) {
+        escribirCabecera(b, tipo, secuencia);
+        b.flip();
+    }
+
+    public static void escribirEstado(ByteBuffer b, int secuencia, PlayerState ps) {
+        escribirCabecera(b, STATE, secuencia);
+        b.put((byte) ps.playerId);
+        b.putFloat(ps.x);
+        b.putFloat(ps.y);
+        b.put((byte) (ps.ducking ? FLAG_AGACHADO : 0));
+        b.flip();
+    }
+
+    public static void escribirObstaculo(ByteBuffer b, int secuencia, EstadoObstaculo o) {
+        escribirCabecera(b, OBST, secuencia);
+        b.putInt(o.id);
+        b.putFloat(o.x);
+        b.putFloat(o.y);
+        b.putFloat(o.width);
+        b.putFloat(o.height);
+        b.put((byte) o.type);
+        b.putInt(o.tick);
+        b.flip();
+    }
+
+    /** JOIN a una sala puntual, o con sala 0 a la primera que tenga lugar. */
+    public static void escribirUnion(ByteBuffer b, int secuencia, int sala) {
+        escribirCabecera(b, JOIN, secuencia);
+        b.putShort((short) sala);
+        b.flip();
+    }
+
+    public static void escribirAsignacion(ByteBuffer b, int secuencia, int id, int sala) {
+        escribirCabecera(b, ASSIGN, secuencia);
+        b.put((byte) id);
+        b.putShort((short) sala);
+        b.flip();
+    }
+
+    public static void escribirConteo(ByteBuffer b, int secuencia, int jugadores) {
+        escribirCabecera(b, COUNT, secuencia);
+        b.put((byte) jugadores);
+        b.flip();
+    }
+
+    /**
+     * INPUT: [id][n] y n entradas (las últimas sin confirmar, hasta MAX_ENTRADAS).
+     * Se repiten en cada paquete, así perder uno no pierde entradas.
+     */
+    public static void escribirEntradas(ByteBuffer b, int secuencia, int playerId, Prediccion p) {
+        escribirCabecera(b, INPUT, secuencia);
+
+        int n = Math.min(p.getPendientes(), MAX_ENTRADAS);
+        int desde = p.getPendientes() - n;
+
+        b.put((byte) playerId);
+        b.put((byte) n);
+        for (int k = desde; k < desde + n; k++) {
+            int flags = (p.getSalto(k) ? FLAG_SALTO : 0) | (p.getAgachada(k) ? FLAG_AGACHADO : 0);
+            b.putInt(p.getSecuencia(k));
+            b.put((byte) flags);
+            b.putFloat(p.getDelta(k));
+        }
+        b.flip();
+    }
+
+    public static void escribirCorreccion(ByteBuffer b, int secuencia, Correccion c) {
+        escribirCabecera(b, CORR, secuencia);
+        b.putInt(c.secuencia);
+        b.putFloat(c.y);
+        b.putFloat(c.velY);
+        b.put((byte) (c.enSuelo ? FLAG_EN_SUELO : 0));
+        b.flip();
+    }
+
+    /** START: con el reloj del servidor (nanos) en el tick 0, para pasar ticks a hora local. */
+    public static void escribirInicio(ByteBuffer b, int secuencia, long nanosTickCero) {
+        escribirCabecera(b, START, secuencia);
+        b.putLong(nanosTickCero);
+        b.flip();
+    }
+
+    /** PING: t0 es el reloj del cliente (System.nanoTime) al enviarlo. */
+    public static void escribirPing(ByteBuffer b, int secuencia, long t0) {
+        escribirCabecera(b, PING, secuencia);
+        b.putLong(t0);
+        b.flip();
+    }
+
+    /** PONG: devuelve el t0 del PING y agrega cuándo lo recibió (t1) y cuándo contesta (t2) el servidor. */
+    public static void escribirPong(ByteBuffer b, int secuencia, long t0, long t1, long t2) {
+        escribirCabecera(b, PONG, secuencia);
+        b.putLong(t0);
+        b.putLong(t1);
+        b.putLong(t2);
+        b.flip();
+    }
+
+    public static void escribirFin(ByteBuffer b, int secuencia, int ganador) {
+        escribirCabecera(b, FIN, secuencia);
+        b.put((byte) ganador);
+        b.flip();
+    }
+
+    /** ACK: confirma que llegó el STATE_DELTA "confirmada" del jugador "playerId". */
+    public static void escribirAck(ByteBuffer b, int secuencia, int playerId, int confirmada) {
+        escribirCabecera(b, ACK, secuencia);
+        b.put((byte) playerId);
+        b.putShort((short) confirmada);
+        b.flip();
+    }
+
+    // -------------------------
+    // Lectura (no mueve la posición del buffer)
+    // -------------------------
+
+    public static boolean leerEstado(ByteBuffer b, PlayerState destino) {
+        if (b.remaining() < TAM_STATE) return false;
+        int p = b.position() + TAM_CABECERA;
+
+        destino.playerId = b.get(p) & 0xFF;
+        destino.x = b.getFloat(p + 1);
+        destino.y = b.getFloat(p + 5);
+        destino.ducking = (b.get(p + 9) & FLAG_AGACHADO) != 0;
+        return true;
+    }
+
+    public static boolean leerObstaculo(ByteBuffer b, EstadoObstaculo destino) {
+        if (b.remaining() < TAM_OBST) return false;
+        int p = b.position() + TAM_CABECERA;
+
+        destino.id = b.getInt(p);
+        destino.x = b.getFloat(p + 4);
+        destino.y = b.getFloat(p + 8);
+        destino.width = b.getFloat(p + 12);
+        destino.height = b.getFloat(p + 16);
+        destino.type = b.get(p + 20);
+        destino.tick = b.getInt(p + 21);
+        return true;
+    }
+
+    /** JOIN: sala pedida; 0 si no pide ninguna (o si es un JOIN viejo, sin cuerpo). */
+    public static int leerSalaUnion(ByteBuffer b) {
+        if (b.remaining() < TAM_JOIN) return 0;
+        return b.getShort(cuerpo(b)) & 0xFFFF;
+    }
+
+    /** ASSIGN: sala asignada (el id queda en leerByte); 0 si el servidor no maneja salas. */
+    public static int leerSalaAsignacion(ByteBuffer b) {
+        if (b.remaining() < TAM_ASSIGN) return 0;
+        return b.getShort(cuerpo(b) + 1) & 0xFFFF;
+    }
+
+    /** INPUT: cantidad de entradas que trae el paquete (el id queda en leerByte), o -1 si está cortado. */
+    public static int leerCantidadEntradas(ByteBuffer b) {
+        if (b.remaining() < TAM_CABECERA + 2) return -1;
+        int n = b.get(b.position() + TAM_CABECERA + 1) & 0xFF;
+        if (n > MAX_ENTRADAS || b.remaining() < TAM_CABECERA + 2 + n * TAM_ENTRADA) return -1;
+        return n;
+    }
+
+    /** INPUT: secuencia de la entrada k (0 = la más vieja del paquete). */
+    public static int leerSecuenciaEntrada(ByteBuffer b, int k) {
+        return b.getInt(posicionEntrada(b, k));
+    }
+
+    public static boolean leerSaltoEntrada(ByteBuffer b, int k) {
+        return (b.get(posicionEntrada(b, k) + 4) & FLAG_SALTO) != 0;
+    }
+
+    public static boolean leerAgachadaEntrada(ByteBuffer b, int k) {
+        return (b.get(posicionEntrada(b, k) + 4) & FLAG_AGACHADO) != 0;
+    }
+
+    public static float leerDeltaEntrada(ByteBuffer b, int k) {
+        return b.getFloat(posicionEntrada(b, k) + 5);
+    }
+
+    private static int posicionEntrada(ByteBuffer b, int k) {
+        return b.position() + TAM_CABECERA + 2 + k * TAM_ENTRADA;
+    }
+
+    public static boolean leerCorreccion(ByteBuffer b, Correccion destino) {
+        if (b.remaining() < TAM_CORR) return false;
+        int p = b.position() + TAM_CABECERA;
+
+        destino.secuencia = b.getInt(p);
+        destino.y = b.getFloat(p + 4);
+        destino.velY = b.getFloat(p + 8);
+        destino.enSuelo = (b.get(p + 12) & FLAG_EN_SUELO) != 0;
+        return true;
+    }
+
+    /** START: reloj del servidor en el tick 0, o Long.MIN_VALUE si no vino (START sin cuerpo). */
+    public static long leerInicio(ByteBuffer b) {
+        if (b.remaining() < TAM_START) return Long.MIN_VALUE;
+        return b.getLong(cuerpo(b));
+    }
+
+    /** PING: t0 del cliente; PONG: t0 devuelto (k = 0), t1 (k = 1) y t2 (k = 2). */
+    public static long leerReloj(ByteBuffer b, int k) {
+        return b.getLong(b.position() + TAM_CABECERA + k * 8);
+    }
+
+    /** ACK: devuelve la secuencia confirmada (el id queda en leerByte). */
+    public static int leerAck(ByteBuffer b) {
+        if (b.remaining() < TAM_ACK) return -1;
+        return b.getShort(b.position() + TAM_CABECERA + 1) & 0xFFFF;
+    }
+
+    /** Para ASSIGN, COUNT, ACK, INPUT y FIN: un único byte sin signo después de la cabecera. */
+    public static int leerByte(ByteBuffer b) {
+        int p = cuerpo(b);
+        if (p >= b.limit()) return -1;
+        return b.get(p) & 0xFF;
+    }
+}
@@ -0,0 +1,135 @@
+package com.dinochrome.game.net;
+
+/**
+ * Reloj del servidor visto desde el cliente, a partir de PING/PONG.
+ *
+ * Cada PONG trae cuatro marcas, como en NTP: t0 (cliente envía), t1 (servidor
+ * recibe), t2 (servidor contesta) y t3 (cliente recibe). De ahí salen:
+ * - RTT    = (t3 - t0) - (t2 - t1)   (sin lo que el servidor tardó en contestar)
+ * - offset = ((t1 - t0) + (t2 - t3)) / 2   (reloj del servidor - reloj local)
+ *
+ * Los dos se suavizan con promedio móvil exponencial. El jitter es el promedio
+ * de cuánto cambia el RTT de una muestra a la siguiente (como RFC 3550).
+ * Una muestra con RTT muy por encima del promedio no mueve el offset: un
+ * paquete demorado en un solo sentido lo correría hasta la mitad de la demora.
+ *
+ * Escribe el hilo de red, lee cualquiera (la pantalla, métricas).
+ */
+public final class RelojRed {
+
+    private static final double ALFA_OFFSET = 1.0 / 8;
+    private static final double ALFA_RTT = 1.0 / 8;
+    private static final double ALFA_JITTER = 1.0 / 16;
+
+    // Muestras con RTT por encima de srtt + 2·jitter (y de este margen) no tocan el offset
+    private static final long MARGEN_ATIPICO_NS = 5_000_000L;
+
+    private final long periodoTickNanos;
+
+    private volatile boolean sincronizado = false;
+    private volatile long offsetNanos = 0;
+    private volatile long rttNanos = 0;
+    private volatile long jitterNanos = 0;
+    private volatile long muestras = 0;
+
+    private double offset;
+    private double rtt;
+    private double jitter;
+    private long rttAnterior;
+
+    // Reloj del servidor en el tick 0 de la partida actual (llega en el START)
+    private volatile long inicioPartidaServidor = Long.MIN_VALUE;
+
+    public RelojRed(int tickHzServidor) {
+        this.periodoTickNanos = 1_000_000_000L / tickHzServidor;
+    }
+
+    public void reiniciar() {
+        sincronizado = false;
+        offsetNanos = 0;
+        rttNanos = 0;
+        jitterNanos = 0;
+        muestras = 0;
+        inicioPartidaServidor = Long.MIN_VALUE;
+    }
+
+    /** Suma una medición a partir de las cuatro marcas de un PING/PONG. */
+    public void muestra(long t0, long t1, long t2, long t3) {
+        long muestraRtt = (t3 - t0) - (t2 - t1);
+        if (muestraRtt < 0) return; // marcas corruptas o PONG de otro PING
+
+        double muestraOffset = ((t1 - t0) + (t2 - t3)) / 2.0;
+
+        if (!sincronizado) {
+            offset = muestraOffset;
+            rtt = muestraRtt;
+            jitter = muestraRtt / 2.0;
+        } else {
+            boolean atipica = muestraRtt > rtt + Math.max(2 * jitter, MARGEN_ATIPICO_NS);
+            if (!atipica) offset += (muestraOffset - offset) * ALFA_OFFSET;
+
+            jitter += (Math.abs(muestraRtt - rttAnterior) - jitter) * ALFA_JITTER;
+            rtt += (muestraRtt - rtt) * ALFA_RTT;
+        }
+        rttAnterior = muestraRtt;
+
+        offsetNanos = (long) offset;
+        rttNanos = (long) rtt;
+        jitterNanos = (long) jitter;
+        muestras++;
+        sincronizado = true;
+    }
+
+    /** Reloj del servidor en el tick 0 de la partida (lo trae el START). */
+    public void setInicioPartida(long nanosServidor) {
+        inicioPartidaServidor = nanosServidor;
+    }
+
+    // -------------------------
+    // Conversión
+    // -------------------------
+
+    /** true cuando hay al menos una medición y se puede convertir. */
+    public boolean isSincronizado() {
+        return sincronizado;
+    }
+
+    /** true si además se sabe cuándo fue el tick 0 de la partida actual. */
+    public boolean conoceTicks() {
+        return sincronizado && inicioPartidaServidor != Long.MIN_VALUE;
+    }
+
+    /** Reloj del servidor (nanos) pasado a System.nanoTime() local. */
+    public long aLocal(long nanosServidor) {
+        return nanosServidor - offsetNanos;
+    }
+
+    /** System.nanoTime() local en el que el servidor corrió ese tick de la partida (ver conoceTicks). */
+    public long tickALocal(int tick) {
+        return aLocal(inicioPartidaServidor + tick * periodoTickNanos);
+    }
+
+    /** Tick de la partida por el que va el servidor ahora (con fracción). */
+    public float tickServidor(long ahoraLocal) {
+        return (float) (ahoraLocal + offsetNanos - inicioPartidaServidor) / periodoTickNanos;
+    }
+
+    // -------------------------
+    // Métricas
+    // -------------------------
+    public long getOffsetNanos() {
+        return offsetNanos;
+    }
+
+    public float getRttMillis() {
+        return rttNanos / 1_000_000f;
+    }
+
+    public float getJitterMillis() {
+        return jitterNanos / 1_000_000f;
+    }
+
+    public long getMuestras() {
+        return muestras;
+    }
+}
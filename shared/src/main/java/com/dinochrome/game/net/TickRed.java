@@ -0,0 +1,74 @@
+package com.dinochrome.game.net;
+
+/**
+ * Reloj fijo para el envío de red, independiente de los FPS.
+ *
+ * El frame suma su delta a un acumulador y sólo hay envío cuando se completa un
+ * período (20/30/60 Hz...). Además se puede saltear el envío si el estado no cambió,
+ * pero nunca más de "latido" segundos seguidos, para que el otro lado sepa que seguimos.
+ */
+public final class TickRed {
+
+    private float periodo;
+    private final float latido;
+
+    private float acumulado = 0f;
+    private float desdeUltimoEnvio = 0f;
+
+    // Métricas
+    private long enviados = 0;
+    private long suprimidos = 0;
+
+    public TickRed(int frecuenciaHz, float latidoSegundos) {
+        this.latido = latidoSegundos;
+        setFrecuencia(frecuenciaHz);
+    }
+
+    public void setFrecuencia(int frecuenciaHz) {
+        periodo = 1f / Math.max(1, frecuenciaHz);
+    }
+
+    /** Segundos entre ticks de red, con la frecuencia configurada. */
+    public float getPeriodo() {
+        return periodo;
+    }
+
+    public void reiniciar() {
+        acumulado = 0f;
+        desdeUltimoEnvio = 0f;
+    }
+
+    /**
+     * Suma el delta del frame. Devuelve true si este frame cae en un tick de red.
+     * Como mucho un tick por frame: después de un tirón no se manda una ráfaga.
+     */
+    public boolean avanzar(float delta) {
+        acumulado += delta;
+        desdeUltimoEnvio += delta;
+
+        if (acumulado < periodo) return false;
+
+        acumulado -= periodo;
+        if (acumulado > periodo) acumulado = 0f;
+        return true;
+    }
+
+    /** En un tick: ¿hay que mandar? Sí si cambió algo o si se cumplió el latido. */
+    public boolean debeEnviar(boolean cambio) {
+        if (cambio || desdeUltimoEnvio >= latido) {
+            desdeUltimoEnvio = 0f;
+            enviados++;
+            return true;
+        }
+        suprimidos++;
+        return false;
+    }
+
+    public long getEnviados() {
+        return enviados;
+    }
+
+    public long getSuprimidos() {
+        return suprimidos;
+    }
+}
@@ -0,0 +1,29 @@
+package com.dinochrome.game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Capa de transporte UDP del cliente.
+ *
+ * Un único hilo de red recibe los datagramas y además corre la tarea periódica
+ * (reintentos de JOIN, keepalive), así no hace falta un hilo por cosa.
+ */
+public interface Transporte {
+
+    /** Cada datagrama recibido. "datos" sólo es válido durante la llamada. */
+    interface Receptor { void recibir(ByteBuffer datos); }
+
+    /** Trabajo periódico, corre en el mismo hilo que Receptor. */
+    interface Tarea { void ejecutar(long ahoraNanos); }
+
+    /** Buffer de envío del tipo que le conviene a la implementación (directo o en heap). */
+    ByteBuffer crearBuffer(int capacidad);
+
+    /** Envía de position a limit. Se puede llamar desde cualquier hilo. */
+    void enviar(ByteBuffer datos);
+
+    /** Arranca el hilo de red. */
+    void iniciar(Receptor receptor, Tarea tarea, long periodoMillis);
+
+    void cerrar();
+}
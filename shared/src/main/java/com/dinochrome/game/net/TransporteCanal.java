@@ -0,0 +1,97 @@
+package com.dinochrome.game.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * Transporte con DatagramChannel no bloqueante y un Selector.
+ *
+ * El hilo duerme en select() hasta que llega un datagrama o vence la tarea
+ * periódica: no hay timeouts de receive ni excepciones por cada espera.
+ * Los datagramas se leen en un buffer directo que se reutiliza.
+ */
+public class TransporteCanal implements Transporte {
+
+    private final InetSocketAddress servidor;
+    private final DatagramChannel canal;
+    private final Selector selector;
+
+    private final ByteBuffer bufferRecepcion = ByteBuffer.allocateDirect(2048);
+
+    private volatile boolean abierto = true;
+
+    public TransporteCanal(InetSocketAddress servidor) throws IOException {
+        this.servidor = servidor;
+
+        canal = DatagramChannel.open();
+        canal.bind(null);
+        canal.configureBlocking(false);
+
+        selector = Selector.open();
+        canal.register(selector, SelectionKey.OP_READ);
+    }
+
+    @Override
+    public ByteBuffer crearBuffer(int capacidad) {
+        return ByteBuffer.allocateDirect(capacidad);
+    }
+
+    @Override
+    public void enviar(ByteBuffer datos) {
+        try {
+            canal.send(datos, servidor);
+        } catch (IOException ignored) {}
+    }
+
+    @Override
+    public void iniciar(Receptor receptor, Tarea tarea, long periodoMillis) {
+        Thread t = new Thread(() -> loop(receptor, tarea, periodoMillis * 1_000_000L), "Cliente-UDP");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void loop(Receptor receptor, Tarea tarea, long periodoNanos) {
+        long proximaTarea = System.nanoTime();
+
+        while (abierto) {
+            try {
+                long ahora = System.nanoTime();
+                if (ahora - proximaTarea >= 0) {
+                    tarea.ejecutar(ahora);
+                    proximaTarea = ahora + periodoNanos;
+                }
+
+                long esperaMillis = Math.max(1, (proximaTarea - ahora) / 1_000_000L);
+                if (selector.select(esperaMillis) > 0) {
+                    selector.selectedKeys().clear();
+                }
+
+                // Drenar todo lo que haya llegado
+                while (true) {
+                    bufferRecepcion.clear();
+                    if (canal.receive(bufferRecepcion) == null) break;
+                    bufferRecepcion.flip();
+                    receptor.recibir(bufferRecepcion);
+                }
+
+            } catch (Exception e) {
+                // canal cerrado o datagrama raro: seguimos si todavía estamos abiertos
+            }
+        }
+    }
+
+    @Override
+    public void cerrar() {
+        abierto = false;
+        try {
+            selector.close();
+        } catch (IOException ignored) {}
+        try {
+            canal.close();
+        } catch (IOException ignored) {}
+    }
+}
@@ -0,0 +1,101 @@
+package com.dinochrome.game.net;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+
+/**
+ * Transporte con DatagramSocket bloqueante (el de siempre).
+ *
+ * Queda como alternativa si no se puede abrir el DatagramChannel. El timeout
+ * del receive se usa como reloj para la tarea periódica.
+ */
+public class TransporteSocket implements Transporte {
+
+    private final InetSocketAddress servidor;
+    private final DatagramSocket socket;
+
+    private final DatagramPacket paqueteEnvio = new DatagramPacket(new byte[0], 0);
+    private byte[] copiaEnvio = new byte[0];
+
+    private volatile boolean abierto = true;
+
+    public TransporteSocket(InetSocketAddress servidor) throws IOException {
+        this.servidor = servidor;
+        socket = new DatagramSocket();
+    }
+
+    @Override
+    public ByteBuffer crearBuffer(int capacidad) {
+        return ByteBuffer.allocate(capacidad);
+    }
+
+    @Override
+    public void enviar(ByteBuffer datos) {
+        synchronized (paqueteEnvio) {
+            try {
+                int largo = datos.remaining();
+                if (datos.hasArray()) {
+                    paqueteEnvio.setData(datos.array(), datos.arrayOffset() + datos.position(), largo);
+                } else {
+                    if (copiaEnvio.length < largo) copiaEnvio = new byte[largo];
+                    datos.duplicate().get(copiaEnvio, 0, largo);
+                    paqueteEnvio.setData(copiaEnvio, 0, largo);
+                }
+                paqueteEnvio.setSocketAddress(servidor);
+                socket.send(paqueteEnvio);
+            } catch (Exception ignored) {}
+        }
+    }
+
+    @Override
+    public void iniciar(Receptor receptor, Tarea tarea, long periodoMillis) {
+        Thread t = new Thread(() -> loop(receptor, tarea, periodoMillis), "Cliente-UDP");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void loop(Receptor receptor, Tarea tarea, long periodoMillis) {
+        byte[] buffer = new byte[2048];
+        ByteBuffer datos = ByteBuffer.wrap(buffer);
+        DatagramPacket p = new DatagramPacket(buffer, buffer.length);
+
+        long periodoNanos = periodoMillis * 1_000_000L;
+        long proximaTarea = System.nanoTime();
+
+        try {
+            socket.setSoTimeout((int) Math.max(1, periodoMillis));
+        } catch (IOException ignored) {}
+
+        while (abierto) {
+            long ahora = System.nanoTime();
+            if (ahora - proximaTarea >= 0) {
+                tarea.ejecutar(ahora);
+                proximaTarea = ahora + periodoNanos;
+            }
+
+            try {
+                p.setLength(buffer.length);
+                socket.receive(p);
+
+                datos.clear();
+                datos.limit(p.getLength());
+                receptor.recibir(datos);
+
+            } catch (SocketTimeoutException timeout) {
+                // normal: toca revisar la tarea periódica
+            } catch (Exception e) {
+                // ignoramos el resto
+            }
+        }
+    }
+
+    @Override
+    public void cerrar() {
+        abierto = false;
+        socket.close();
+    }
+}
@@ -0,0 +1,51 @@
+package com.dinochrome.game.net;
+
+/**
+ * Qué ids ya se vieron, en una ventana deslizante de 64: el más alto y un bit
+ * por cada uno de los 63 anteriores (bit 0 = el más alto).
+ *
+ * Sirve para ids que sólo crecen (obstáculos): lo repetido o lo que quedó más
+ * atrás que la ventana se descarta, lo que llega desordenado adentro de la
+ * ventana se acepta una sola vez. Sin objetos ni colecciones.
+ *
+ * No es thread-safe: lo usa sólo el hilo de red.
+ */
+public final class VentanaIds {
+
+    private static final int TAM = 64;
+
+    private boolean vacia = true;
+    private int mayor;
+    private long vistos;
+
+    public void reiniciar() {
+        vacia = true;
+        mayor = 0;
+        vistos = 0;
+    }
+
+    /** true si el id es nuevo (y queda marcado); false si es repetido o demasiado viejo. */
+    public boolean marcar(int id) {
+        if (vacia) {
+            vacia = false;
+            mayor = id;
+            vistos = 1;
+            return true;
+        }
+
+        if (id > mayor) {
+            int adelante = id - mayor;
+            vistos = (adelante >= TAM ? 0 : vistos << adelante) | 1;
+            mayor = id;
+            return true;
+        }
+
+        int atras = mayor - id;
+        if (atras >= TAM) return false;
+
+        long bit = 1L << atras;
+        if ((vistos & bit) != 0) return false;
+        vistos |= bit;
+        return true;
+    }
+}
@@ -0,0 +1,308 @@
+package com.dinochrome.game.sim;
+
+import java.util.Arrays;
+
+/**
+ * Obstáculos guardados como arreglos paralelos (uno por campo) en vez de un
+ * objeto por obstáculo.
+ *
+ * Moverlos es un recorrido lineal sobre floats contiguos, sin saltos de puntero
+ * ni ramas (el JIT lo vectoriza). Agregar no crea objetos salvo cuando hay que
+ * agrandar los arreglos (se duplican).
+ *
+ * Están ordenados por x (borde izquierdo) y todos se mueven igual, así que el
+ * orden se mantiene solo: alcanza con insertar en su lugar (el nuevo suele ir al
+ * final) y quitar sin desordenar (los que salen están al principio). Eso da un
+ * sweep-and-prune en una dimensión: para una caja, los únicos candidatos son
+ * el tramo con x entre x1 - anchoMaximo y x2, que se encuentra por búsqueda
+ * binaria (fase amplia). Cada candidato se prueba con toca() (fase fina). El
+ * costo por dino depende de cuántos tiene cerca, no de cuántos hay.
+ *
+ * Los arreglos se leen directo (almacen.x[i], i < getCantidad()), pero no hay
+ * que guardarlos: al crecer se reemplazan.
+ *
+ * No es thread-safe.
+ */
+public final class AlmacenObstaculos {
+
+    public static final int CACTUS = 0;
+    public static final int PTERO = 1;
+
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    // Holgura de la fase amplia contra el redondeo de x1 - anchoMaximo (la fina es exacta)
+    private static final float MARGEN_AMPLIA = 1f;
+
+    public float[] x;
+    // x al empezar el último paso: para dibujar entre dos pasos (ver Simulacion.getAlfa)
+    public float[] xAnterior;
+    public float[] y;
+    public float[] ancho;
+    public float[] alto;
+    public int[] tipo;
+    // Id del servidor (o de quien lo genere); 0 si no tiene
+    public int[] id;
+
+    private int cantidad = 0;
+
+    // El más ancho desde limpiar(): hasta dónde a la izquierda de x1 puede empezar uno que la toque
+    private float anchoMaximo = 0f;
+
+    public AlmacenObstaculos() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    public AlmacenObstaculos(int capacidad) {
+        capacidad = Math.max(1, capacidad);
+        x = new float[capacidad];
+        xAnterior = new float[capacidad];
+        y = new float[capacidad];
+        ancho = new float[capacidad];
+        alto = new float[capacidad];
+        tipo = new int[capacidad];
+        id = new int[capacidad];
+    }
+
+    public int getCantidad() {
+        return cantidad;
+    }
+
+    public void limpiar() {
+        cantidad = 0;
+        anchoMaximo = 0f;
+    }
+
+    /** Agrega uno en su lugar según x; devuelve su índice (válido hasta el próximo agregar o quitar). */
+    public int agregar(float x, float y, float ancho, float alto, int tipo, int id) {
+        if (cantidad == this.x.length) crecer();
+
+        // Lo normal es que aparezca a la derecha de todos: no se corre nada
+        int i = cantidad;
+        while (i > 0 && this.x[i - 1] > x) i--;
+        if (i < cantidad) correr(i, i + 1, cantidad - i);
+        cantidad++;
+
+        this.x[i] = x;
+        this.xAnterior[i] = x;
+        this.y[i] = y;
+        this.ancho[i] = ancho;
+        this.alto[i] = alto;
+        this.tipo[i] = tipo;
+        this.id[i] = id;
+
+        if (ancho > anchoMaximo) anchoMaximo = ancho;
+        return i;
+    }
+
+    /** Quita el i sin desordenar a los demás. */
+    public void quitar(int i) {
+        correr(i + 1, i, cantidad - i - 1);
+        cantidad--;
+    }
+
+    // -------------------------
+    // Recorridos
+    // -------------------------
+
+    /** Corre todos dx a la izquierda (guardando la x anterior). */
+    public void mover(float dx) {
+        final float[] x = this.x;
+        final float[] xAnterior = this.xAnterior;
+        final int n = cantidad;
+
+        for (int i = 0; i < n; i++) {
+            float xi = x[i];
+            xAnterior[i] = xi;
+            x[i] = xi - dx;
+        }
+    }
+
+    /**
+     * Deshace el último mover() hasta la fracción t (0 = donde estaban, 1 = donde
+     * están) y deja la x anterior igual, para que no se interpole más.
+     */
+    public void retroceder(float t) {
+        final float[] x = this.x;
+        final float[] xAnterior = this.xAnterior;
+        final int n = cantidad;
+
+        for (int i = 0; i < n; i++) {
+            float xi = xAnterior[i] + (x[i] - xAnterior[i]) * t;
+            x[i] = xi;
+            xAnterior[i] = xi;
+        }
+    }
+
+    /**
+     * mover(dx) y después la prueba contra la caja [x1,x2]×[y1,y2] con las
+     * posiciones nuevas. Devuelve true si alguno la toca.
+     *
+     * Son dos recorridos a propósito: juntar la prueba en el loop de mover (aun
+     * sin ramas, con & o min/max) hace que HotSpot no lo vectorice y sale unas
+     * tres veces más lento que mover vectorizado + una prueba que corta sola.
+     */
+    public boolean moverYProbar(float dx, float x1, float y1, float x2, float y2) {
+        mover(dx);
+        return primeroQueToca(x1, y1, x2, y2) >= 0;
+    }
+
+    /** Índice del primero que toca la caja [x1,x2]×[y1,y2], o -1. Sólo mira los candidatos. */
+    public int primeroQueToca(float x1, float y1, float x2, float y2) {
+        final float[] x = this.x;
+        final int n = cantidad;
+
+        for (int i = primerCandidato(x1); i < n && x[i] < x2; i++) {
+            if (toca(i, x1, y1, x2, y2)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Choque barrido: la caja [x1,x2]×[y1,y2] es donde terminó el dino y (dx, dy)
+     * cuánto se movió respecto de los obstáculos en el paso (su movimiento más
+     * el de ellos, que es -velocidad·paso en x). Se prueba todo el recorrido, no
+     * sólo el final: con pasos largos (un tirón, velocidad muy alta o pocos
+     * pasos por segundo) un cactus angosto ya no puede quedar "saltado".
+     *
+     * Devuelve la fracción del paso (0..1) en la que toca al primero, o -1.
+     * Con dx = dy = 0 es lo mismo que primeroQueToca().
+     */
+    public float impactoBarrido(float x1, float y1, float x2, float y2, float dx, float dy) {
+        // Caja al empezar el paso
+        float x1Antes = x1 - dx;
+        float y1Antes = y1 - dy;
+        float x2Antes = x2 - dx;
+        float y2Antes = y2 - dy;
+
+        // Fase amplia con todo lo que barrió en x
+        float desde = Math.min(x1, x1Antes);
+        float hasta = Math.max(x2, x2Antes);
+
+        final float[] x = this.x;
+        final int n = cantidad;
+
+        float primero = -1f;
+        for (int i = primerCandidato(desde); i < n && x[i] < hasta; i++) {
+            float t = impacto(i, x1Antes, y1Antes, x2Antes, y2Antes, dx, dy);
+            if (t >= 0f && (primero < 0f || t < primero)) primero = t;
+        }
+        return primero;
+    }
+
+    // -------------------------
+    // Fase amplia / fase fina
+    // -------------------------
+
+    /**
+     * Primer índice que puede tocar una caja que empieza en x1: los anteriores
+     * terminan antes. Los candidatos siguen mientras x[i] < x2.
+     */
+    public int primerCandidato(float x1) {
+        float limite = x1 - anchoMaximo - MARGEN_AMPLIA;
+        final float[] x = this.x;
+
+        int desde = 0;
+        int hasta = cantidad;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (x[medio] > limite) hasta = medio;
+            else desde = medio + 1;
+        }
+        return desde;
+    }
+
+    /** AABB exacto del i contra la caja [x1,x2]×[y1,y2]. */
+    public boolean toca(int i, float x1, float y1, float x2, float y2) {
+        float xi = x[i];
+        float yi = y[i];
+        return x2 > xi && x1 < xi + ancho[i] && y2 > yi && y1 < yi + alto[i];
+    }
+
+    /**
+     * AABB barrido del i contra una caja que arranca en [x1,x2]×[y1,y2] y se
+     * mueve (dx, dy): por eje, el intervalo de t en que se solapan; si los dos
+     * intervalos se cruzan adentro de [0,1] hay choque. Devuelve el t de
+     * entrada (0 si ya se tocaban), o -1.
+     */
+    public float impacto(int i, float x1, float y1, float x2, float y2, float dx, float dy) {
+        float ox1 = x[i];
+        float ox2 = ox1 + ancho[i];
+        float oy1 = y[i];
+        float oy2 = oy1 + alto[i];
+
+        float entrada = 0f;
+        float salida = 1f;
+
+        if (dx == 0f) {
+            if (!(x2 > ox1 && x1 < ox2)) return -1f;
+        } else {
+            float a = (ox1 - x2) / dx;
+            float b = (ox2 - x1) / dx;
+            entrada = Math.max(entrada, Math.min(a, b));
+            salida = Math.min(salida, Math.max(a, b));
+        }
+
+        if (dy == 0f) {
+            if (!(y2 > oy1 && y1 < oy2)) return -1f;
+        } else {
+            float a = (oy1 - y2) / dy;
+            float b = (oy2 - y1) / dy;
+            entrada = Math.max(entrada, Math.min(a, b));
+            salida = Math.min(salida, Math.max(a, b));
+        }
+
+        // Estricto, como toca(): apenas rozar un borde no es choque
+        return entrada < salida ? entrada : -1f;
+    }
+
+    /** Quita los que ya salieron por la izquierda (x + ancho < 0); devuelve cuántos. */
+    public int quitarSalidos() {
+        final float[] x = this.x;
+        final float[] ancho = this.ancho;
+        final int n = cantidad;
+
+        // Sólo pueden haber salido los del principio (x < 0); entre ellos quedan los que todavía asoman
+        int i = 0;
+        int quedan = 0;
+        for (; i < n && x[i] < 0f; i++) {
+            if (x[i] + ancho[i] >= 0f) {
+                if (quedan != i) correr(i, quedan, 1);
+                quedan++;
+            }
+        }
+
+        int quitados = i - quedan;
+        if (quitados > 0) {
+            correr(i, quedan, n - i);
+            cantidad = n - quitados;
+        }
+        return quitados;
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+
+    // Mueve cuantos elementos de desde a hasta en todos los arreglos (pueden solaparse)
+    private void correr(int desde, int hasta, int cuantos) {
+        if (cuantos <= 0) return;
+        System.arraycopy(x, desde, x, hasta, cuantos);
+        System.arraycopy(xAnterior, desde, xAnterior, hasta, cuantos);
+        System.arraycopy(y, desde, y, hasta, cuantos);
+        System.arraycopy(ancho, desde, ancho, hasta, cuantos);
+        System.arraycopy(alto, desde, alto, hasta, cuantos);
+        System.arraycopy(tipo, desde, tipo, hasta, cuantos);
+        System.arraycopy(id, desde, id, hasta, cuantos);
+    }
+
+    private void crecer() {
+        int capacidad = x.length * 2;
+        x = Arrays.copyOf(x, capacidad);
+        xAnterior = Arrays.copyOf(xAnterior, capacidad);
+        y = Arrays.copyOf(y, capacidad);
+        ancho = Arrays.copyOf(ancho, capacidad);
+        alto = Arrays.copyOf(alto, capacidad);
+        tipo = Arrays.copyOf(tipo, capacidad);
+        id = Arrays.copyOf(id, capacidad);
+    }
+}
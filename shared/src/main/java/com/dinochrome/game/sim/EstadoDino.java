@@ -0,0 +1,23 @@
+package com.dinochrome.game.sim;
+
+/** Estado físico de un dino (sólo lo vertical: x es fija por jugador). */
+public class EstadoDino {
+    public float y = FisicaDino.Y_SUELO;
+    public float velY = 0f;
+    public boolean enSuelo = true;
+    public boolean agachado = false;
+
+    public void reiniciar() {
+        y = FisicaDino.Y_SUELO;
+        velY = 0f;
+        enSuelo = true;
+        agachado = false;
+    }
+
+    public void copiarDe(EstadoDino otro) {
+        y = otro.y;
+        velY = otro.velY;
+        enSuelo = otro.enSuelo;
+        agachado = otro.agachado;
+    }
+}
@@ -0,0 +1,39 @@
+package com.dinochrome.game.sim;
+
+/**
+ * Salto, agachada y gravedad del dino.
+ *
+ * Es la misma cuenta para la predicción local, la reconciliación y el servidor:
+ * con las mismas entradas y el mismo delta da el mismo resultado.
+ */
+public final class FisicaDino {
+
+    public static final float Y_SUELO = 40f;
+    public static final float GRAVEDAD = -900f;
+    public static final float FUERZA_SALTO = 350f;
+
+    private FisicaDino() {}
+
+    /** Avanza un paso. Devuelve true si en este paso arrancó un salto (para el sonido). */
+    public static boolean avanzar(EstadoDino d, boolean saltar, boolean agachar, float delta) {
+        d.agachado = agachar && d.enSuelo;
+
+        boolean salto = false;
+        if (saltar && d.enSuelo) {
+            d.velY = FUERZA_SALTO;
+            d.enSuelo = false;
+            salto = true;
+        }
+
+        d.velY += GRAVEDAD * delta;
+        d.y += d.velY * delta;
+
+        if (d.y <= Y_SUELO) {
+            d.y = Y_SUELO;
+            d.velY = 0f;
+            d.enSuelo = true;
+        }
+
+        return salto;
+    }
+}
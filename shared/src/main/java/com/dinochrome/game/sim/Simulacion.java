@@ -0,0 +1,256 @@
+package com.dinochrome.game.sim;
+
+import java.util.Random;
+
+/**
+ * El mundo del juego avanzado a paso fijo, sin nada de libGDX.
+ *
+ * La pantalla le pasa el delta del frame; acá se acumula y se corren tantos
+ * pasos de PASO segundos como entren (el resto queda para el frame siguiente).
+ * Así el salto, la velocidad y los choques dan lo mismo a 30, 60 o 144 FPS, y
+ * con la misma semilla y las mismas entradas se repite la partida exacta en
+ * cualquier máquina. Para dibujar sin tirones, getAlfa() dice cuánto del
+ * próximo paso ya pasó: se interpola entre la posición anterior y la actual.
+ *
+ * Tres modos:
+ * - autónoma (un jugador): genera sus obstáculos con su Random y simula el dino.
+ * - sin dino (cliente multijugador): los obstáculos llegan de afuera
+ *   (agregarObstaculo) y los dinos los maneja la pantalla; acá sólo se mueven y
+ *   se cuentan.
+ * - generadora sin dino (servidor): genera los obstáculos como la autónoma, y
+ *   el que la usa los anuncia (getGenerado) y adjudica los choques aparte.
+ */
+public final class Simulacion {
+
+    /** Paso fijo: el mismo que el tick del servidor. */
+    public static final float PASO = 1f / 60f;
+
+    // Con un frame trabado no se corren pasos sin fin para alcanzar (espiral de la muerte)
+    private static final int MAX_PASOS_POR_FRAME = 8;
+
+    // Mundo
+    public static final float ANCHO = 800f;
+    public static final float VELOCIDAD_INICIAL = 250f;
+    public static final float ACELERACION = 2f;
+
+    // Dino (un jugador)
+    public static final float X_DINO = 80f;
+    public static final float ANCHO_HITBOX = 30f;
+    public static final float ALTO_PARADO = 40f;
+    public static final float ALTO_AGACHADO = 25f;
+
+    private final boolean generaObstaculos;
+    private final boolean simulaDino;
+    private final Random random = new Random();
+
+    private float acumulador = 0f;
+    private long pasos = 0;
+
+    private float velocidad;
+    // Cuánto se corrieron los obstáculos desde el reinicio (para barrer choques entre chequeos)
+    private double distancia;
+    private float temporizadorSpawn;
+    // No vuelve a 1 al reiniciar: los clientes descartan ids repetidos (ver VentanaIds)
+    private int proximoId = 1;
+    // Id del que generó el último paso (0: ninguno)
+    private int idGenerado;
+    private int puntaje;
+    private boolean terminada;
+
+    /** Obstáculos vivos, ordenados por x (quitar no desordena; ver AlmacenObstaculos). */
+    public final AlmacenObstaculos obstaculos = new AlmacenObstaculos();
+
+    /** El dino (sólo en modo autónomo). */
+    public final EstadoDino dino = new EstadoDino();
+    private float yDinoAnterior;
+
+    // Entrada del jugador: el salto se guarda hasta que lo consuma un paso
+    private boolean saltoPendiente = false;
+    private boolean agachar = false;
+    private int saltos = 0;
+
+    public Simulacion(long semilla, boolean autonoma) {
+        this(semilla, autonoma, autonoma);
+    }
+
+    public Simulacion(long semilla, boolean generaObstaculos, boolean simulaDino) {
+        this.generaObstaculos = generaObstaculos;
+        this.simulaDino = simulaDino;
+        reiniciar(semilla);
+    }
+
+    public void reiniciar(long semilla) {
+        random.setSeed(semilla);
+        acumulador = 0f;
+        pasos = 0;
+
+        velocidad = VELOCIDAD_INICIAL;
+        distancia = 0;
+        temporizadorSpawn = 0f;
+        idGenerado = 0;
+        puntaje = 0;
+        terminada = false;
+        obstaculos.limpiar();
+
+        dino.reiniciar();
+        yDinoAnterior = dino.y;
+        saltoPendiente = false;
+        agachar = false;
+        saltos = 0;
+    }
+
+    // -------------------------
+    // Entrada y avance
+    // -------------------------
+
+    /** saltar es un flanco (tecla recién apretada); agachar, si está apretada ahora. */
+    public void setEntrada(boolean saltar, boolean agachar) {
+        if (saltar) saltoPendiente = true;
+        this.agachar = agachar;
+    }
+
+    /** Suma el delta del frame y corre los pasos que correspondan. Devuelve cuántos. */
+    public int avanzar(float deltaFrame) {
+        if (terminada) return 0;
+
+        acumulador += deltaFrame;
+
+        int n = 0;
+        while (acumulador >= PASO && n < MAX_PASOS_POR_FRAME) {
+            paso();
+            acumulador -= PASO;
+            n++;
+            if (terminada) break;
+        }
+
+        // Lo que no se alcanzó a correr se descarta: mejor ir lento que trabarse
+        if (n == MAX_PASOS_POR_FRAME && acumulador >= PASO) acumulador = 0f;
+        return n;
+    }
+
+    /**
+     * Un solo paso fijo, sin acumulador: para el que lleva su propio reloj a
+     * ritmo de PASO (el tick del servidor). Las pantallas usan avanzar().
+     */
+    public void paso() {
+        pasos++;
+        yDinoAnterior = dino.y;
+        idGenerado = 0;
+
+        if (simulaDino) {
+            if (FisicaDino.avanzar(dino, saltoPendiente, agachar, PASO)) saltos++;
+            saltoPendiente = false;
+        }
+        if (generaObstaculos) generarObstaculos();
+
+        moverObstaculos();
+        velocidad += PASO * ACELERACION;
+    }
+
+    private void generarObstaculos() {
+        temporizadorSpawn += PASO;
+        if (temporizadorSpawn <= 1.2f + random.nextFloat()) return;
+        temporizadorSpawn = 0f;
+
+        idGenerado = proximoId++;
+        if (random.nextBoolean()) {
+            obstaculos.agregar(ANCHO, FisicaDino.Y_SUELO, 20 + random.nextInt(10), 30 + random.nextInt(10),
+                AlmacenObstaculos.CACTUS, idGenerado);
+        } else {
+            float yPtero = random.nextBoolean() ? FisicaDino.Y_SUELO + 15 : FisicaDino.Y_SUELO + 30;
+            obstaculos.agregar(ANCHO, yPtero, 40, 20, AlmacenObstaculos.PTERO, idGenerado);
+        }
+    }
+
+    private void moverObstaculos() {
+        float dx = velocidad * PASO;
+        obstaculos.mover(dx);
+        distancia += dx;
+
+        if (simulaDino) {
+            // Barrido: el dino avanzó dx respecto de los obstáculos y subió o bajó lo que dice su y
+            float altoDino = dino.agachado ? ALTO_AGACHADO : ALTO_PARADO;
+            float impacto = obstaculos.impactoBarrido(X_DINO, dino.y, X_DINO + ANCHO_HITBOX, dino.y + altoDino,
+                dx, dino.y - yDinoAnterior);
+            if (impacto >= 0f) {
+                terminada = true;
+                retrocederAlImpacto(impacto);
+            }
+        }
+
+        puntaje += obstaculos.quitarSalidos();
+    }
+
+    // Deja todo en el instante del choque (fracción t del paso): se ve tocándose, no encimado ni pasado
+    private void retrocederAlImpacto(float t) {
+        obstaculos.retroceder(t);
+        dino.y = yDinoAnterior + (dino.y - yDinoAnterior) * t;
+        yDinoAnterior = dino.y;
+    }
+
+    /** Obstáculo que llega de afuera (cliente multijugador). Devuelve su índice. */
+    public int agregarObstaculo(float x, float y, float ancho, float alto, int tipo) {
+        return obstaculos.agregar(x, y, ancho, alto, tipo, 0);
+    }
+
+    /**
+     * Índice del obstáculo que apareció en el último paso (ya movido con ese
+     * paso), o -1 si no apareció ninguno. Vale hasta el próximo paso.
+     */
+    public int getGenerado() {
+        if (idGenerado == 0) return -1;
+        // Apareció a la derecha de todos: casi siempre es el último
+        for (int i = obstaculos.getCantidad() - 1; i >= 0; i--) {
+            if (obstaculos.id[i] == idGenerado) return i;
+        }
+        return -1;
+    }
+
+    // -------------------------
+    // Dibujo (interpolado)
+    // -------------------------
+
+    /** Fracción (0..1) del próximo paso que ya pasó. */
+    public float getAlfa() {
+        return acumulador / PASO;
+    }
+
+    public float getXDibujo(int i) {
+        float xAnterior = obstaculos.xAnterior[i];
+        return xAnterior + (obstaculos.x[i] - xAnterior) * getAlfa();
+    }
+
+    public float getYDinoDibujo() {
+        return yDinoAnterior + (dino.y - yDinoAnterior) * getAlfa();
+    }
+
+    // -------------------------
+    // Estado
+    // -------------------------
+    public float getVelocidad() {
+        return velocidad;
+    }
+
+    /** Cuánto se corrieron los obstáculos desde el reinicio. */
+    public double getDistancia() {
+        return distancia;
+    }
+
+    public int getPuntaje() {
+        return puntaje;
+    }
+
+    /** El dino chocó (sólo en modo autónomo). */
+    public boolean isTerminada() {
+        return terminada;
+    }
+
+    /** Saltos que arrancaron desde el reinicio: la pantalla suena cuando cambia. */
+    public int getSaltos() {
+        return saltos;
+    }
+
+    public long getPasos() {
+        return pasos;
+    }
+}
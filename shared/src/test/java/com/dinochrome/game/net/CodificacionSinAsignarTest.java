@@ -0,0 +1,193 @@
+package com.dinochrome.game.net;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Codificar y decodificar mensajes en régimen no crea objetos: se miden los
+ * bytes asignados por el hilo (ThreadMXBean de HotSpot) después de calentar,
+ * para que el JIT y las clases ya estén listos.
+ */
+public class CodificacionSinAsignarTest {
+
+    private static final int CALENTAMIENTO = 20_000;
+    private static final int VUELTAS = 100_000;
+
+    // Lo que puede asignar la medición misma; una asignación por vuelta serían megas
+    private static final long MAX_BYTES = 256;
+
+    private final ByteBuffer b = ByteBuffer.allocate(Protocolo.TAM_MAX);
+
+    private final PlayerState enviado = new PlayerState();
+    private final PlayerState recibido = new PlayerState();
+    private final EstadoObstaculo obstaculo = new EstadoObstaculo();
+    private final EstadoObstaculo obstaculoLeido = new EstadoObstaculo();
+    private final Correccion correccion = new Correccion();
+    private final Correccion correccionLeida = new Correccion();
+    private final Prediccion prediccion = new Prediccion(64);
+
+    private final CompresorEstado compresor = new CompresorEstado();
+    private final DescompresorEstado descompresor = new DescompresorEstado();
+
+    private final byte[] texto = LectorTexto.ascii("  STATE;id=3;x=80.0;y=-12.5;duck=1 \n");
+    private static final byte[] TXT_STATE = LectorTexto.ascii("STATE;");
+    private static final byte[] CLAVE_ID = LectorTexto.ascii("id=");
+    private static final byte[] CLAVE_X = LectorTexto.ascii("x=");
+    private static final byte[] CLAVE_Y = LectorTexto.ascii("y=");
+    private static final byte[] CLAVE_DUCK = LectorTexto.ascii("duck=");
+
+    // Para que el JIT no descarte lo leído
+    private long sumidero;
+
+    @Before
+    public void preparar() {
+        enviado.playerId = 2;
+        enviado.x = 80f;
+        enviado.y = 0f;
+
+        obstaculo.id = 41;
+        obstaculo.x = 812.5f;
+        obstaculo.y = 0f;
+        obstaculo.width = 20f;
+        obstaculo.height = 40f;
+        obstaculo.type = 1;
+        obstaculo.tick = 300;
+
+        correccion.secuencia = 17;
+        correccion.y = 33.25f;
+        correccion.velY = -120f;
+        correccion.enSuelo = false;
+
+        for (int i = 0; i < 5; i++) prediccion.aplicar(i == 0, i == 3, 1f / 60f);
+    }
+
+    // -------------------------
+    // Ida y vuelta
+    // -------------------------
+
+    @Test
+    public void estadoYObstaculoIdaYVuelta() {
+        Protocolo.escribirEstado(b, 7, enviado);
+        assertTrue(Protocolo.leerEstado(b, recibido));
+        assertEquals(2, recibido.playerId);
+        assertEquals(80f, recibido.x, 0f);
+        assertFalse(recibido.ducking);
+
+        Protocolo.escribirObstaculo(b, 8, obstaculo);
+        assertTrue(Protocolo.leerObstaculo(b, obstaculoLeido));
+        assertEquals(41, obstaculoLeido.id);
+        assertEquals(812.5f, obstaculoLeido.x, 0f);
+        assertEquals(1, obstaculoLeido.type);
+        assertEquals(300, obstaculoLeido.tick);
+    }
+
+    @Test
+    public void entradasYCorreccionIdaYVuelta() {
+        Protocolo.escribirEntradas(b, 9, 2, prediccion);
+        assertEquals(5, Protocolo.leerCantidadEntradas(b));
+        assertEquals(2, Protocolo.leerByte(b));
+        assertTrue(Protocolo.leerSaltoEntrada(b, 0));
+        assertTrue(Protocolo.leerAgachadaEntrada(b, 3));
+        assertEquals(prediccion.getSecuencia(4), Protocolo.leerSecuenciaEntrada(b, 4));
+
+        Protocolo.escribirCorreccion(b, 10, correccion);
+        assertTrue(Protocolo.leerCorreccion(b, correccionLeida));
+        assertEquals(17, correccionLeida.secuencia);
+        assertEquals(33.25f, correccionLeida.y, 0f);
+        assertEquals(-120f, correccionLeida.velY, 0f);
+        assertFalse(correccionLeida.enSuelo);
+    }
+
+    @Test
+    public void deltaContraLaBaseConfirmada() {
+        compresor.escribir(b, 1, enviado);
+        assertTrue(descompresor.leer(b, recibido));
+        compresor.confirmar(1);
+
+        enviado.y = 15.5f;
+        compresor.escribir(b, 2, enviado);
+        int conBase = b.remaining();
+        assertTrue(descompresor.leer(b, recibido));
+        assertEquals(80f, recibido.x, 0f);
+        assertEquals(15.5f, recibido.y, 0f);
+
+        // Sólo cambió y: sin x y con un varint, más corto que el absoluto
+        compresor.reiniciar();
+        compresor.escribir(b, 3, enviado);
+        assertTrue(conBase < b.remaining());
+    }
+
+    @Test
+    public void textoSinCrearStrings() {
+        int ini = LectorTexto.inicio(texto, texto.length);
+        int fin = LectorTexto.fin(texto, ini, texto.length);
+
+        assertTrue(LectorTexto.empiezaCon(texto, ini, fin, TXT_STATE));
+        assertEquals(3, LectorTexto.leerEntero(texto, ini, fin, CLAVE_ID));
+        assertEquals(80f, LectorTexto.leerFloat(texto, ini, fin, CLAVE_X), 0f);
+        assertEquals(-12.5f, LectorTexto.leerFloat(texto, ini, fin, CLAVE_Y), 0f);
+        assertEquals(1, LectorTexto.leerEntero(texto, ini, fin, CLAVE_DUCK));
+    }
+
+    // -------------------------
+    // Sin asignar en régimen
+    // -------------------------
+
+    @Test
+    public void codificarYDecodificarNoAsigna() {
+        ThreadMXBean mx = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(mx.isThreadAllocatedMemorySupported());
+        mx.setThreadAllocatedMemoryEnabled(true);
+        long hilo = Thread.currentThread().getId();
+
+        // Calentar: que compile el JIT y se carguen las clases
+        for (int i = 0; i < CALENTAMIENTO; i++) vuelta(i);
+
+        long antes = mx.getThreadAllocatedBytes(hilo);
+        for (int i = 0; i < VUELTAS; i++) vuelta(CALENTAMIENTO + i);
+        long bytes = mx.getThreadAllocatedBytes(hilo) - antes;
+
+        assertTrue(sumidero != 0);
+        assertTrue("asignó " + bytes + " bytes en " + VUELTAS + " vueltas", bytes <= MAX_BYTES);
+    }
+
+    /** Lo que hacen por tick el servidor y el cliente con cada mensaje. */
+    private void vuelta(int i) {
+        int secuencia = i & 0xFFFF;
+        enviado.y = (i % 40) * 0.75f;
+
+        Protocolo.escribirEstado(b, secuencia, enviado);
+        Protocolo.leerEstado(b, recibido);
+        sumidero += recibido.playerId;
+
+        Protocolo.escribirObstaculo(b, secuencia, obstaculo);
+        Protocolo.leerObstaculo(b, obstaculoLeido);
+        sumidero += obstaculoLeido.id;
+
+        Protocolo.escribirEntradas(b, secuencia, 2, prediccion);
+        int n = Protocolo.leerCantidadEntradas(b);
+        for (int k = 0; k < n; k++) sumidero += Protocolo.leerSecuenciaEntrada(b, k);
+
+        Protocolo.escribirCorreccion(b, secuencia, correccion);
+        Protocolo.leerCorreccion(b, correccionLeida);
+        sumidero += correccionLeida.secuencia;
+
+        compresor.escribir(b, secuencia, enviado);
+        if (descompresor.leer(b, recibido)) sumidero++;
+        if (descompresor.tomarPendientesDeAck() != 0) compresor.confirmar(secuencia);
+
+        int ini = LectorTexto.inicio(texto, texto.length);
+        int fin = LectorTexto.fin(texto, ini, texto.length);
+        sumidero += LectorTexto.leerEntero(texto, ini, fin, CLAVE_ID);
+        sumidero += (long) LectorTexto.leerFloat(texto, ini, fin, CLAVE_Y);
+    }
+}
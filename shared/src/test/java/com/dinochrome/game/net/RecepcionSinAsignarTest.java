@@ -0,0 +1,213 @@
+package com.dinochrome.game.net;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * El camino de recepción de GameClient no crea objetos en régimen: los
+ * datagramas entran por recibir() (binario: CanalFiable, DescompresorEstado,
+ * VentanaIds; texto: LectorTexto) y salen como eventos en ColaEventos, que
+ * se vacía como lo hace la pantalla. Se mide el hilo que entrega, que hace de
+ * hilo de red.
+ */
+public class RecepcionSinAsignarTest {
+
+    // Largo: con menos, alguna recompilación del JIT todavía cae adentro de la medición
+    private static final int CALENTAMIENTO = 100_000;
+    private static final int VUELTAS = 100_000;
+
+    // Lo que puede asignar la medición misma; una asignación por vuelta serían megas
+    private static final long MAX_BYTES = 256;
+
+    // Textos distintos para el OBST de texto (los repetidos se parsean igual y no se publican)
+    private static final int OBST_TEXTO = 1024;
+
+    // -------------------------
+    // Binario
+    // -------------------------
+
+    // Lado "servidor": lo que necesita para armar lo que manda y leer lo que recibe
+    private final TransportePrueba transporte = new TransportePrueba();
+    private final ByteBuffer b = ByteBuffer.allocate(Protocolo.TAM_MAX);
+    private final CanalFiable fiableServidor = new CanalFiable();
+    private final CompresorEstado compresorServidor = new CompresorEstado();
+    private final PlayerState otro = new PlayerState();
+    private final EstadoObstaculo obstaculo = new EstadoObstaculo();
+    private final Correccion correccion = new Correccion();
+    private int secuenciaServidor = 0;
+
+    @Test
+    public void recibirBinarioNoAsigna() {
+        GameClient cliente = new GameClient(transporte, true, 0);
+        transporte.salida = this::leerDelCliente;
+
+        // JOIN del cliente, y el ASSIGN que lo confirma
+        transporte.correrTarea(System.nanoTime());
+        Protocolo.escribirAsignacion(b, siguiente(), 1, 3);
+        mandarFiable();
+        assertEquals(1, cliente.myId);
+
+        otro.playerId = 2;
+        otro.x = 140f;
+        obstaculo.width = 20f;
+        obstaculo.height = 40f;
+
+        for (int i = 0; i < CALENTAMIENTO; i++) vueltaBinaria(cliente, i);
+
+        long bytes = medir(() -> {
+            for (int i = 0; i < VUELTAS; i++) vueltaBinaria(cliente, CALENTAMIENTO + i);
+        });
+
+        assertEquals(0, cliente.eventos.getDesbordes());
+        assertEquals(0, fiableServidor.getEnVuelo());
+        assertTrue("asignó " + bytes + " bytes en " + VUELTAS + " vueltas", bytes <= MAX_BYTES);
+    }
+
+    /** Un tick del servidor visto desde el cliente, y un frame de la pantalla. */
+    private void vueltaBinaria(GameClient cliente, int i) {
+        otro.y = (i % 40) * 0.75f;
+        compresorServidor.escribir(b, siguiente(), otro);
+        mandar();
+
+        Protocolo.escribirEstado(b, siguiente(), otro);
+        mandar();
+
+        obstaculo.id = 100 + i;
+        obstaculo.x = 800f;
+        obstaculo.tick = i;
+        Protocolo.escribirObstaculo(b, siguiente(), obstaculo);
+        mandar();
+
+        correccion.secuencia = i;
+        correccion.y = otro.y;
+        Protocolo.escribirCorreccion(b, siguiente(), correccion);
+        mandar();
+
+        // Control confiable: el cliente lo confirma en el acto (y lo ve el servidor)
+        Protocolo.escribirConteo(b, siguiente(), 2);
+        mandarFiable();
+
+        long ahora = System.nanoTime();
+        Protocolo.escribirPong(b, siguiente(), ahora - 1_000_000L, ahora - 500_000L, ahora - 400_000L);
+        mandar();
+
+        // La tarea periódica (ACK de estados, PING, reenvíos) de vez en cuando
+        if (i % 16 == 0) transporte.correrTarea(ahora);
+
+        vaciar(cliente.eventos);
+    }
+
+    private int siguiente() {
+        secuenciaServidor = (secuenciaServidor + 1) & 0xFFFF;
+        return secuenciaServidor;
+    }
+
+    private void mandar() {
+        fiableServidor.sellar(b);
+        transporte.entregar(b);
+    }
+
+    private void mandarFiable() {
+        assertTrue(fiableServidor.registrar(b, System.nanoTime()));
+        mandar();
+    }
+
+    // Lo que hace el servidor con lo que manda el cliente: confirmaciones y ACK de estados
+    private void leerDelCliente(ByteBuffer datos) {
+        fiableServidor.procesarAcks(datos, System.nanoTime());
+        int tipo = Protocolo.leerTipo(datos);
+        if (Protocolo.esFiable(tipo)) {
+            fiableServidor.recibir(datos);
+            while (fiableServidor.entregar() != null) {
+                // JOIN: ya se contestó con el ASSIGN
+            }
+        } else if (tipo == Protocolo.ACK) {
+            compresorServidor.confirmar(Protocolo.leerAck(datos));
+        }
+    }
+
+    // -------------------------
+    // Texto
+    // -------------------------
+
+    @Test
+    public void recibirTextoNoAsigna() {
+        GameClient cliente = new GameClient(transporte, false, 0);
+
+        transporte.entregar(texto("ASSIGN;id=1;sala=3"));
+        assertEquals(1, cliente.myId);
+
+        ByteBuffer estado = texto("STATE;id=2;x=140.0;y=12.75;duck=0");
+        ByteBuffer conteo = texto("COUNT;players=2");
+        ByteBuffer inicio = texto("START");
+        ByteBuffer fin = texto("FIN;ganador=1");
+        ByteBuffer[] obstaculos = new ByteBuffer[OBST_TEXTO];
+        for (int k = 0; k < OBST_TEXTO; k++) {
+            obstaculos[k] = texto("OBST;id=" + (k + 1) + ";x=800.0;y=0.0;w=20.0;h=40.0;t=0;tick=" + k);
+        }
+
+        Runnable vuelta = new Runnable() {
+            private int i = 0;
+
+            @Override
+            public void run() {
+                transporte.entregar(estado);
+                transporte.entregar(obstaculos[i++ % OBST_TEXTO]);
+                transporte.entregar(conteo);
+                if (i % 100 == 0) {
+                    transporte.entregar(inicio);
+                    transporte.entregar(fin);
+                }
+                vaciar(cliente.eventos);
+            }
+        };
+
+        for (int i = 0; i < CALENTAMIENTO; i++) vuelta.run();
+
+        long bytes = medir(() -> {
+            for (int i = 0; i < VUELTAS; i++) vuelta.run();
+        });
+
+        assertEquals(2, cliente.playerCount);
+        assertEquals(0, cliente.eventos.getDesbordes());
+        assertTrue("asignó " + bytes + " bytes en " + VUELTAS + " vueltas", bytes <= MAX_BYTES);
+    }
+
+    // Como lo deja el transporte real: en un buffer directo, sin array
+    private static ByteBuffer texto(String s) {
+        byte[] bytes = LectorTexto.ascii(s);
+        ByteBuffer d = ByteBuffer.allocateDirect(bytes.length);
+        d.put(bytes);
+        d.flip();
+        return d;
+    }
+
+    // -------------------------
+    // Helpers
+    // -------------------------
+
+    // Lo que hace la pantalla una vez por frame
+    private static void vaciar(ColaEventos eventos) {
+        eventos.abrirLote();
+        while (eventos.siguiente() != null) eventos.liberar();
+    }
+
+    // Bytes que asignó este hilo mientras corría "trabajo"
+    private static long medir(Runnable trabajo) {
+        ThreadMXBean mx = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(mx.isThreadAllocatedMemorySupported());
+        mx.setThreadAllocatedMemoryEnabled(true);
+        long hilo = Thread.currentThread().getId();
+
+        long antes = mx.getThreadAllocatedBytes(hilo);
+        trabajo.run();
+        return mx.getThreadAllocatedBytes(hilo) - antes;
+    }
+}
@@ -0,0 +1,50 @@
+package com.dinochrome.game.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Transporte sin red ni hilo para probar GameClient: la prueba le entrega los
+ * datagramas (en su propio hilo, como lo haría el hilo de red) y corre la tarea
+ * periódica cuando quiere. Lo que el cliente envía va a "salida", si hay.
+ */
+final class TransportePrueba implements Transporte {
+
+    private Receptor receptor;
+    private Tarea tarea;
+
+    /** Recibe cada paquete que manda el cliente (vale sólo durante la llamada). */
+    Receptor salida;
+
+    int enviados = 0;
+
+    @Override
+    public ByteBuffer crearBuffer(int capacidad) {
+        return ByteBuffer.allocate(capacidad);
+    }
+
+    @Override
+    public void enviar(ByteBuffer datos) {
+        enviados++;
+        if (salida != null) salida.recibir(datos);
+    }
+
+    @Override
+    public void iniciar(Receptor receptor, Tarea tarea, long periodoMillis) {
+        this.receptor = receptor;
+        this.tarea = tarea;
+    }
+
+    @Override
+    public void cerrar() {
+    }
+
+    /** Un datagrama que "llega" (se entrega desde el principio, como recién leído). */
+    void entregar(ByteBuffer datos) {
+        datos.rewind();
+        receptor.recibir(datos);
+    }
+
+    void correrTarea(long ahora) {
+        tarea.ejecutar(ahora);
+    }
+}